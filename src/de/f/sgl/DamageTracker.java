@@ -0,0 +1,247 @@
+package de.f.sgl;
+
+import java.util.function.Consumer;
+
+/**
+ * Collects invalidated {@link Rectangle}s between two frames and hands the regions to repaint to the renderer
+ *
+ * <p>Each invalidated rectangle is merged with the regions it overlaps or touches, as long as the merged bounding
+ * box does not waste more than the configured share of its area on pixels neither region covered. Regions inside
+ * another one are dropped. If there are more than the maximum amount of regions, the two whose merge wastes the
+ * least area are merged. The regions are a fixed pool of {@link Rectangle}s, so neither invalidating nor flushing
+ * allocates. A {@code DamageTracker} is not thread-safe.</p>
+ *
+ * <pre>{@code
+ * tracker.invalidate(button.getBounds());
+ * ...
+ * tracker.flush(region -> renderer.repaint(region));
+ * }</pre>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class DamageTracker {
+    private static final int DEFAULT_MAX_REGIONS = 16;
+    private static final double DEFAULT_MAX_WASTE = 0.25;
+
+    /** Regions of the next frame */
+    private Rectangle[] regions;
+    private int count;
+    /** Second pool handed to the renderer by {@link #flush(Consumer)}, so invalidating meanwhile does not touch it */
+    private Rectangle[] flushed;
+    private boolean flushing;
+    private final int maxRegions;
+    private final double maxWaste;
+    /** The rectangle being merged into the regions */
+    private final Rectangle pending = new Rectangle();
+    private final Rectangle union = new Rectangle();
+    private final Rectangle overlap = new Rectangle();
+    /** Limits all regions, {@code null} if unlimited */
+    private Rectangle clip;
+
+    /**
+     * Generates a new {@code DamageTracker} keeping up to {@value DEFAULT_MAX_REGIONS} regions and merging them
+     * if at most {@code 25%} of the merged area is wasted
+     */
+    public DamageTracker() {
+        this(DEFAULT_MAX_REGIONS, DEFAULT_MAX_WASTE);
+    }
+
+    /**
+     * Generates a new {@code DamageTracker}
+     * @param maxRegions Maximum amount of regions per frame
+     * @param maxWaste Share of the merged area in {@code [0, 1]} which may be repainted needlessly by a merge
+     */
+    public DamageTracker(int maxRegions, double maxWaste) {
+        if(maxRegions < 1)
+            throw new IllegalArgumentException("Maximum amount of regions must be positive\n\tMaximum: " + maxRegions);
+        if(!(maxWaste >= 0 && maxWaste <= 1))
+            throw new IllegalArgumentException("Waste must be between 0 and 1\n\tWaste: " + maxWaste);
+
+        this.maxRegions = maxRegions;
+        this.maxWaste = maxWaste;
+        this.regions = new Rectangle[maxRegions + 1];
+        this.flushed = new Rectangle[maxRegions + 1];
+        for(int i = 0; i < this.regions.length; i ++) {
+            this.regions[i] = new Rectangle();
+            this.flushed[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Limits all regions to the given area, usually the size of the window
+     * @param clip The area, {@code null} for no limit
+     */
+    public void setClip(Rectangle clip) {
+        this.clip = clip == null ? null : clip.clone();
+    }
+
+    /**
+     * Marks the rectangle as changed
+     */
+    public void invalidate(Rectangle r) {
+        invalidate(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Marks the rectangle as changed, empty rectangles are ignored
+     */
+    public void invalidate(int x, int y, int width, int height) {
+        Rectangle pending = this.pending.setBounds(x, y, width, height);
+        if(this.clip != null)
+            pending.intersection(this.clip, pending);
+        if(pending.isEmpty())
+            return;
+
+        // merging grows the pending rectangle, so the regions are checked again until nothing merges
+        boolean merged = true;
+        while(merged) {
+            merged = false;
+            for(int i = 0; i < this.count; i ++) {
+                Rectangle region = this.regions[i];
+                if(region.contains(pending))
+                    return;
+
+                if(pending.contains(region) || touches(region, pending) && waste(region, pending) <= this.maxWaste) {
+                    region.union(pending, pending);
+                    removeAt(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+
+        this.regions[this.count ++].setBounds(pending);
+        if(this.count > this.maxRegions)
+            mergeCheapest();
+    }
+
+    /**
+     * Marks the whole clip area as changed
+     * @throws IllegalStateException If there is no clip area
+     */
+    public void invalidateAll() throws IllegalStateException {
+        if(this.clip == null)
+            throw new IllegalStateException("DamageTracker has no clip area");
+        this.count = 0;
+        invalidate(this.clip);
+    }
+
+    /**
+     * @return {@code true} if the rectangles overlap or share an edge
+     */
+    private static boolean touches(Rectangle a, Rectangle b) {
+        return a.x <= b.getMaxX() && b.x <= a.getMaxX() && a.y <= b.getMaxY() && b.y <= a.getMaxY();
+    }
+
+    /**
+     * @return the share of the bounding box of both rectangles which is covered by neither of them
+     */
+    private double waste(Rectangle a, Rectangle b) {
+        long area = a.union(b, this.union).area();
+        long covered = a.area() + b.area() - a.intersection(b, this.overlap).area();
+        return (double) (area - covered) / area;
+    }
+
+    private void removeAt(int i) {
+        Rectangle removed = this.regions[i];
+        this.regions[i] = this.regions[-- this.count];
+        this.regions[this.count] = removed;
+    }
+
+    /**
+     * Merges the two regions whose bounding box wastes the least area
+     */
+    private void mergeCheapest() {
+        int bestA = 0, bestB = 1;
+        double bestWaste = Double.MAX_VALUE;
+        for(int a = 0; a < this.count; a ++) {
+            for(int b = a + 1; b < this.count; b ++) {
+                double waste = waste(this.regions[a], this.regions[b]);
+                if(waste < bestWaste) {
+                    bestA = a;
+                    bestB = b;
+                    bestWaste = waste;
+                }
+            }
+        }
+
+        Rectangle pending = this.regions[bestA].union(this.regions[bestB], this.pending);
+        removeAt(bestB);
+        removeAt(bestA);
+        // the merged region may now cover or touch others
+        invalidate(pending.x, pending.y, pending.width, pending.height);
+    }
+
+    /**
+     * @return {@code true} if anything was invalidated since the last flush
+     */
+    public boolean isDirty() {
+        return this.count > 0;
+    }
+
+    /**
+     * @return the current amount of regions
+     */
+    public int getRegionCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the total area of all regions, overlapping parts counted twice
+     */
+    public long getDirtyArea() {
+        long area = 0;
+        for(int i = 0; i < this.count; i ++)
+            area += this.regions[i].area();
+        return area;
+    }
+
+    /**
+     * Computes the bounding box of all regions
+     * @param dst Receives the bounds, empty if nothing is dirty
+     * @return {@code dst}
+     */
+    public Rectangle getBounds(Rectangle dst) {
+        dst.setBounds(0, 0, 0, 0);
+        for(int i = 0; i < this.count; i ++)
+            dst.union(this.regions[i], dst);
+        return dst;
+    }
+
+    /**
+     * Hands all regions to the renderer and starts a new frame. The {@link Rectangle}s are reused, the renderer must
+     * not keep them after it returned. The renderer may invalidate, for example to animate, those regions belong to
+     * the next frame.
+     * @param renderer Repaints one region
+     * @return the amount of regions
+     * @throws IllegalStateException If the renderer calls {@code flush} again
+     */
+    public int flush(Consumer<? super Rectangle> renderer) throws IllegalStateException {
+        if(this.flushing)
+            throw new IllegalStateException("DamageTracker is already flushing");
+
+        Rectangle[] regions = this.regions;
+        int count = this.count;
+        this.regions = this.flushed;
+        this.flushed = regions;
+        this.count = 0;
+
+        this.flushing = true;
+        try {
+            for(int i = 0; i < count; i ++)
+                renderer.accept(regions[i]);
+        } finally {
+            this.flushing = false;
+        }
+        return count;
+    }
+
+    /**
+     * Discards all regions
+     */
+    public void clear() {
+        this.count = 0;
+    }
+}
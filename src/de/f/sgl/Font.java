@@ -18,5 +18,44 @@ public class Font {
         this.size = size;
     }
 
+    public String getName() {
+        return name;
+    }
+    public int getStyle() {
+        return style;
+    }
+    public int getSize() {
+        return size;
+    }
+    public boolean isBold() {
+        return (this.style & BOLD) != 0;
+    }
+    public boolean isItalic() {
+        return (this.style & ITALIC) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Font font = (Font) o;
+
+        if (style != font.style) return false;
+        if (size != font.size) return false;
+        return name.equals(font.name);
+    }
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + style;
+        result = 31 * result + size;
+        return result;
+    }
+    @Override
+    public String toString() {
+        return this.getClass().getName() + "[" + this.name + ", " + this.style + ", " + this.size + "]";
+    }
+
     // TODO: ☺☺☻☻‼‼‼‼‼‼‼‼
 }
\ No newline at end of file
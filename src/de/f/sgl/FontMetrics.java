@@ -0,0 +1,341 @@
+package de.f.sgl;
+
+import de.f.utils.DoubleMapCache;
+import de.f.utils.IntList;
+
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphMetrics;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Measures glyphs and text of a {@link Font}
+ *
+ * <p>The advance and bounds of each glyph are measured once with {@link java.awt.font} and cached in pages of
+ * {@value PAGE_SIZE} code points, so measuring text only sums cached advances. No display is needed, the metrics
+ * work in headless mode. Kerning and ligatures are not applied. {@code FontMetrics} are thread-safe and shared
+ * per {@link Font}, see {@link #of(Font)}. The {@value MAX_CACHED_FONTS} most recently used are kept, so many font
+ * sizes do not pin their metrics forever.</p>
+ * @see TextRunCache
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public final class FontMetrics {
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    /** Floats per glyph: advance, x, y, width, height */
+    private static final int STRIDE = 5;
+    private static final FontRenderContext CONTEXT = new FontRenderContext(null, true, true);
+    private static final int MAX_CACHED_FONTS = 64;
+    /** Keyed by name and by style and size packed into a {@code long} */
+    private static final DoubleMapCache<String, Long, FontMetrics> METRICS =
+            new DoubleMapCache.Builder<String, Long, FontMetrics>()
+            .maximumSize(MAX_CACHED_FONTS)
+            .policy(DoubleMapCache.Policy.LRU)
+            .build();
+
+    private final Font font;
+    private final java.awt.Font awtFont;
+    private final float ascent, descent, leading;
+    private final AtomicReferenceArray<float[]> pages = new AtomicReferenceArray<>((Character.MAX_CODE_POINT + 1) >> PAGE_SHIFT);
+
+    private FontMetrics(Font font) {
+        this.font = font;
+
+        int style = (font.isBold() ? java.awt.Font.BOLD : 0) | (font.isItalic() ? java.awt.Font.ITALIC : 0);
+        this.awtFont = new java.awt.Font(font.getName(), style, font.getSize());
+        LineMetrics metrics = this.awtFont.getLineMetrics("", CONTEXT);
+        this.ascent = metrics.getAscent();
+        this.descent = metrics.getDescent();
+        this.leading = metrics.getLeading();
+    }
+
+    /**
+     * @return the shared {@code FontMetrics} of the given {@link Font}, measured again if it was evicted
+     */
+    public static FontMetrics of(Font font) {
+        long key = (long) font.getStyle() << 32 | font.getSize() & 0xFFFFFFFFL;
+        return METRICS.get(font.getName(), key, (name, style) -> new FontMetrics(font));
+    }
+
+    public Font getFont() {
+        return font;
+    }
+    /**
+     * @return the distance from the baseline to the top of most glyphs
+     */
+    public float getAscent() {
+        return ascent;
+    }
+    /**
+     * @return the distance from the baseline to the bottom of most glyphs
+     */
+    public float getDescent() {
+        return descent;
+    }
+    /**
+     * @return the recommended gap between two lines
+     */
+    public float getLeading() {
+        return leading;
+    }
+    /**
+     * @return the distance between the baselines of two lines
+     */
+    public float getLineHeight() {
+        return this.ascent + this.descent + this.leading;
+    }
+
+    /**
+     * @return the page containing the given code point, measured on first use
+     */
+    private float[] page(int codePoint) {
+        if(codePoint < 0 || codePoint > Character.MAX_CODE_POINT)
+            throw new IllegalArgumentException("Code point is out of bounds\n\tCode point: " + codePoint);
+
+        int index = codePoint >>> PAGE_SHIFT;
+        float[] page = this.pages.get(index);
+        if(page == null) {
+            page = measure(index << PAGE_SHIFT);
+            // another thread may have measured the same page, both results are equal
+            this.pages.set(index, page);
+        }
+        return page;
+    }
+
+    /**
+     * Measures all glyphs of a page with one {@link GlyphVector}, surrogates have no glyph and stay empty
+     */
+    private float[] measure(int first) {
+        float[] page = new float[PAGE_SIZE * STRIDE];
+        char[] chars = new char[PAGE_SIZE << 1];
+        // slot of the code point starting at each char, -1 for low surrogates
+        int[] slots = new int[PAGE_SIZE << 1];
+        int length = 0;
+        for(int i = 0; i < PAGE_SIZE; i ++) {
+            int codePoint = first + i;
+            if(codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+                continue;
+            slots[length] = i;
+            int n = Character.toChars(codePoint, chars, length);
+            if(n == 2)
+                slots[length + 1] = -1;
+            length += n;
+        }
+        if(length == 0)
+            return page;
+
+        GlyphVector glyphs = this.awtFont.createGlyphVector(CONTEXT, new String(chars, 0, length));
+        for(int i = 0; i < glyphs.getNumGlyphs(); i ++) {
+            int charIndex = glyphs.getGlyphCharIndex(i);
+            if(charIndex < 0 || charIndex >= length || slots[charIndex] < 0)
+                continue;
+
+            GlyphMetrics metrics = glyphs.getGlyphMetrics(i);
+            Rectangle2D bounds = metrics.getBounds2D();
+            int offset = slots[charIndex] * STRIDE;
+            page[offset] = metrics.getAdvance();
+            page[offset + 1] = (float) bounds.getX();
+            page[offset + 2] = (float) bounds.getY();
+            page[offset + 3] = (float) bounds.getWidth();
+            page[offset + 4] = (float) bounds.getHeight();
+        }
+        return page;
+    }
+
+    /**
+     * @return the horizontal advance of the glyph of the given code point
+     */
+    public float getAdvance(int codePoint) {
+        return page(codePoint)[(codePoint & PAGE_SIZE - 1) * STRIDE];
+    }
+
+    /**
+     * Copies the visual bounds of the glyph relative to its origin on the baseline, the y axis points down
+     * @param dst Receives {@code x, y, width, height}
+     * @return {@code dst}
+     */
+    public float[] getGlyphBounds(int codePoint, float[] dst) {
+        float[] page = page(codePoint);
+        System.arraycopy(page, (codePoint & PAGE_SIZE - 1) * STRIDE + 1, dst, 0, 4);
+        return dst;
+    }
+
+    private static void checkRange(CharSequence text, int start, int end) {
+        if(start < 0 || end > text.length() || start > end)
+            throw new IndexOutOfBoundsException("Range is out of bounds\n\tStart: " + start + ", End: " + end + ", Size: " + text.length());
+    }
+
+    /**
+     * Like {@link Character#codePointAt(CharSequence, int)} but never pairs a surrogate with a char at {@code end}
+     */
+    static int codePointAt(CharSequence text, int index, int end) {
+        char c = text.charAt(index);
+        if(Character.isHighSurrogate(c) && index + 1 < end) {
+            char low = text.charAt(index + 1);
+            if(Character.isLowSurrogate(low))
+                return Character.toCodePoint(c, low);
+        }
+        return c;
+    }
+
+    /**
+     * @return the width of the whole text
+     */
+    public float getWidth(CharSequence text) {
+        return getWidth(text, 0, text.length());
+    }
+
+    /**
+     * @return the width of the given range of the text, no substring is created
+     */
+    public float getWidth(CharSequence text, int start, int end) {
+        checkRange(text, start, end);
+
+        float width = 0;
+        for(int i = start; i < end; ) {
+            int codePoint = codePointAt(text, i, end);
+            width += getAdvance(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return width;
+    }
+
+    /**
+     * Fills the x offset of every char of the range, {@code offsets[i]} is the start of {@code text.charAt(start + i)}
+     * and {@code offsets[end - start]} the width of the range. The low surrogate of a pair starts at its end.
+     * @param offsets Receives {@code end - start + 1} offsets
+     * @return {@code offsets}
+     */
+    float[] getOffsets(CharSequence text, int start, int end, float[] offsets) {
+        checkRange(text, start, end);
+
+        float x = 0;
+        for(int i = start; i < end; ) {
+            int codePoint = codePointAt(text, i, end);
+            int count = Character.charCount(codePoint);
+            offsets[i - start] = x;
+            x += getAdvance(codePoint);
+            if(count == 2)
+                offsets[i - start + 1] = x;
+            i += count;
+        }
+        offsets[end - start] = x;
+        return offsets;
+    }
+
+    /**
+     * Supplies the advance of the code point at an index, lets {@link TextRun} wrap with its measured offsets
+     */
+    interface Advances {
+        float advance(int index, int codePoint);
+    }
+
+    /**
+     * Breaks the whole text into lines
+     * @see #wrap(CharSequence, int, int, float, IntList)
+     */
+    public int wrap(CharSequence text, float maxWidth, IntList lines) {
+        return wrap(text, 0, text.length(), maxWidth, lines);
+    }
+
+    /**
+     * Breaks the range of the text into lines no wider than the given width. Lines end at line breaks, after spaces
+     * and hyphens, or inside a word which does not fit on its own line. Spaces at a soft break are dropped. Works on
+     * any {@link CharSequence} like {@link de.f.utils.StringBuilder} without creating substrings.
+     * @param maxWidth Maximum width of a line
+     * @param lines Receives the start and end index of each line
+     * @return the amount of lines
+     */
+    public int wrap(CharSequence text, int start, int end, float maxWidth, IntList lines) {
+        checkRange(text, start, end);
+        return wrap(text, start, end, maxWidth, lines, (index, codePoint) -> getAdvance(codePoint));
+    }
+
+    static int wrap(CharSequence text, int start, int end, float maxWidth, IntList lines, Advances advances) {
+        int count = 0;
+        int lineStart = start;
+        while(true) {
+            float width = 0;
+            boolean content = false, hard = false;
+            int lineEnd = end, next = end;
+            int breakEnd = -1, breakNext = -1;
+
+            for(int i = lineStart; i < end; ) {
+                int codePoint = codePointAt(text, i, end);
+                int n = Character.charCount(codePoint);
+                if(codePoint == '\n' || codePoint == '\r') {
+                    lineEnd = i;
+                    next = codePoint == '\r' && i + 1 < end && text.charAt(i + 1) == '\n' ? i + 2 : i + 1;
+                    hard = true;
+                    break;
+                }
+
+                float advance = advances.advance(i, codePoint);
+                if(Character.isWhitespace(codePoint)) {
+                    // spaces may hang over the margin, they are trimmed anyway
+                    if(content) {
+                        breakEnd = i;
+                        breakNext = i + n;
+                    }
+                    width += advance;
+                    i += n;
+                    continue;
+                }
+
+                if(width + advance > maxWidth && content) {
+                    if(breakEnd >= 0) {
+                        lineEnd = breakEnd;
+                        next = breakNext;
+                    } else {
+                        lineEnd = i;
+                        next = i;
+                    }
+                    break;
+                }
+
+                width += advance;
+                content = true;
+                i += n;
+                if(codePoint == '-') {
+                    breakEnd = i;
+                    breakNext = i;
+                }
+            }
+
+            if(!hard) {
+                while(next < end && isSpace(text.charAt(next)))
+                    next ++;
+            }
+            while(lineEnd > lineStart && isSpace(text.charAt(lineEnd - 1)))
+                lineEnd --;
+
+            lines.add(lineStart);
+            lines.add(lineEnd);
+            count ++;
+            if(next >= end && !hard)
+                return count;
+            lineStart = next;
+            if(next >= end) {
+                // a trailing line break starts an empty last line
+                lines.add(end);
+                lines.add(end);
+                return count + 1;
+            }
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c != '\n' && c != '\r' && Character.isWhitespace(c);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getName() + "[" + this.font + ", ascent=" + this.ascent + ", descent=" + this.descent
+                + ", leading=" + this.leading + "]";
+    }
+}
@@ -0,0 +1,291 @@
+package de.f.sgl;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable list of {@code int} coordinates stored as two parallel arrays
+ *
+ * <p>A polyline of a million vertices is two arrays instead of a million {@link Point}s, and the bulk transforms
+ * stream over them without allocating, vectorized if the module {@code jdk.incubator.vector} is present.
+ * {@link Point}s are only created by {@link #toPoint(int)}, {@link #get(int, Point)} fills an existing one.</p>
+ * @see VectorBuffer
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class PointBuffer {
+    private int[] xs;
+    private int[] ys;
+    private int size;
+    private int modCount;
+    /** Scratch array of {@link #getBounds(Rectangle)} */
+    private final int[] bounds = new int[4];
+
+    private static final int DEFAULT_SIZE = 1 << 4;
+
+    /**
+     * Generates a new {@code PointBuffer} with the starting capacity of {@value DEFAULT_SIZE}
+     */
+    public PointBuffer() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Generates a new {@code PointBuffer} with the given starting capacity
+     * @param startCapacity Starting capacity of the {@code PointBuffer}
+     */
+    public PointBuffer(int startCapacity) {
+        if(startCapacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative\n\tCapacity: " + startCapacity);
+        this.xs = new int[startCapacity];
+        this.ys = new int[startCapacity];
+    }
+
+    /**
+     * @return the amount of points
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the {@code PointBuffer} is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Clears the {@code PointBuffer} but keeps its capacity
+     */
+    public void clear() {
+        this.size = 0;
+        this.modCount ++;
+    }
+
+    /**
+     * Grows the arrays so they can hold the given amount of points
+     * @param capacity Minimum capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity <= this.xs.length)
+            return;
+
+        int newCapacity = (int) Math.min(Math.max((long) this.xs.length << 1, capacity), Integer.MAX_VALUE - 8);
+        this.xs = Arrays.copyOf(this.xs, newCapacity);
+        this.ys = Arrays.copyOf(this.ys, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if(index >= this.size || index < 0)
+            throw new IndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Size: " + this.size);
+    }
+
+    /**
+     * Appends the given coordinates
+     * @return {@code this}
+     */
+    public PointBuffer add(int x, int y) {
+        if(this.size == this.xs.length)
+            ensureCapacity(this.size + 1);
+
+        this.xs[this.size] = x;
+        this.ys[this.size ++] = y;
+        this.modCount ++;
+        return this;
+    }
+
+    /**
+     * Appends the coordinates of the given {@link Point}
+     * @return {@code this}
+     */
+    public PointBuffer add(Point p) {
+        return add(p.x, p.y);
+    }
+
+    public int getX(int index) {
+        checkIndex(index);
+        return this.xs[index];
+    }
+    public int getY(int index) {
+        checkIndex(index);
+        return this.ys[index];
+    }
+
+    /**
+     * Sets the coordinates at the given index
+     */
+    public void set(int index, int x, int y) {
+        checkIndex(index);
+        this.xs[index] = x;
+        this.ys[index] = y;
+    }
+
+    /**
+     * Copies the coordinates at the given index into the given {@link Point}
+     * @return {@code dst}
+     */
+    public Point get(int index, Point dst) {
+        checkIndex(index);
+        dst.x = this.xs[index];
+        dst.y = this.ys[index];
+        return dst;
+    }
+
+    /**
+     * @return a new {@link Point} of the coordinates at the given index
+     */
+    public Point toPoint(int index) {
+        return get(index, new Point());
+    }
+
+    /**
+     * Moves all points
+     * @return {@code this}
+     */
+    public PointBuffer translate(int dx, int dy) {
+        Simd.translate(this.xs, this.ys, this.size, dx, dy);
+        return this;
+    }
+
+    /**
+     * Scales all points relative to the origin
+     * @return {@code this}
+     */
+    public PointBuffer scale(double sx, double sy) {
+        return transform(sx, 0, 0, 0, sy, 0);
+    }
+
+    /**
+     * Rotates all points around the origin
+     * @param angle Angle in radians
+     * @return {@code this}
+     */
+    public PointBuffer rotate(double angle) {
+        return rotate(angle, 0, 0);
+    }
+
+    /**
+     * Rotates all points around the given center
+     * @param angle Angle in radians
+     * @return {@code this}
+     */
+    public PointBuffer rotate(double angle, double cx, double cy) {
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        return transform(cos, -sin, cx - cos * cx + sin * cy, sin, cos, cy - sin * cx - cos * cy);
+    }
+
+    /**
+     * Applies an affine transform to all points: {@code x' = m00 * x + m01 * y + m02},
+     * {@code y' = m10 * x + m11 * y + m12}, the results are rounded
+     * @return {@code this}
+     * @see java.awt.geom.AffineTransform
+     */
+    public PointBuffer transform(double m00, double m01, double m02, double m10, double m11, double m12) {
+        Simd.transform(this.xs, this.ys, this.size, m00, m01, m02, m10, m11, m12);
+        return this;
+    }
+
+    /**
+     * Computes the smallest {@link Rectangle} containing all points, so {@link Rectangle#contains(int, int)} is
+     * {@code true} for each of them. A single point gives a box of size {@code 1}. A width or height over
+     * {@link Integer#MAX_VALUE} is clamped, the right-most or bottom-most points are then outside.
+     * @param dst The {@link Rectangle} receiving the bounds
+     * @return {@code dst}
+     * @throws IllegalStateException If the {@code PointBuffer} is empty
+     */
+    public Rectangle getBounds(Rectangle dst) throws IllegalStateException {
+        if(this.size == 0)
+            throw new IllegalStateException("PointBuffer is empty");
+
+        int[] bounds = this.bounds;
+        Simd.bounds(this.xs, this.ys, this.size, bounds);
+        dst.x = bounds[0];
+        dst.y = bounds[1];
+        dst.width = (int) Math.min((long) bounds[2] - bounds[0] + 1, Integer.MAX_VALUE);
+        dst.height = (int) Math.min((long) bounds[3] - bounds[1] + 1, Integer.MAX_VALUE);
+        return dst;
+    }
+
+    /**
+     * @return a new {@link Cursor} placed before the first point
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Iterates over the points without creating {@link Point}s
+     *
+     * <pre>{@code
+     * PointBuffer.Cursor cursor = buffer.cursor();
+     * while(cursor.next())
+     *     draw(cursor.x(), cursor.y());
+     * }</pre>
+     */
+    public final class Cursor {
+        private final int expectedModCount = PointBuffer.this.modCount;
+        private int index = -1;
+
+        private Cursor() {}
+
+        /**
+         * Moves to the next point
+         * @return {@code false} if there is no next point
+         */
+        public boolean next() {
+            if(PointBuffer.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+            if(this.index < PointBuffer.this.size)
+                this.index ++;
+            return this.index < PointBuffer.this.size;
+        }
+
+        /**
+         * @return the index of the current point
+         */
+        public int index() {
+            if(this.index < 0 || this.index >= PointBuffer.this.size)
+                throw new NoSuchElementException();
+            return this.index;
+        }
+
+        public int x() {
+            return PointBuffer.this.xs[index()];
+        }
+        public int y() {
+            return PointBuffer.this.ys[index()];
+        }
+
+        /**
+         * Sets the coordinates of the current point
+         */
+        public void set(int x, int y) {
+            int index = index();
+            PointBuffer.this.xs[index] = x;
+            PointBuffer.this.ys[index] = y;
+        }
+
+        /**
+         * Copies the current point into the given {@link Point}
+         * @return {@code dst}
+         */
+        public Point get(Point dst) {
+            return PointBuffer.this.get(index(), dst);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName()).append("[");
+        for(int i = 0; i < this.size; i ++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append("[").append(this.xs[i]).append(", ").append(this.ys[i]).append("]");
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,570 @@
+package de.f.sgl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A spatial index of {@link Rectangle}s for hit testing and range queries
+ *
+ * <p>The tree groups nearby rectangles into nodes of at most {@value MAX_ENTRIES} entries, each node stores the
+ * bounding boxes of its entries, so a query only descends into the nodes overlapping it and takes
+ * {@code O(log n + k)} instead of scanning all rectangles. Overflowing nodes are split like in an R*-tree, by the
+ * axis with the smallest margin and the distribution with the least overlap. {@link #load(Collection)} builds a
+ * packed tree at once by Sort-Tile-Recursive bulk loading.</p>
+ *
+ * <p>The bounds of a rectangle are copied when it is inserted, a rectangle which is moved or resized has to be
+ * removed before and inserted again afterwards. Rectangles are compared by identity. Empty rectangles, including
+ * ones with a negative width or height, are stored but never found by a query, just as they never contain or
+ * intersect anything. Queries with a {@link Visitor} do not allocate, queries returning a {@link List} allocate
+ * only the list.</p>
+ * @see Rectangle#intersects(Rectangle)
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class RTree<R extends Rectangle> {
+    /**
+     * Receives the rectangles found by a query
+     */
+    @FunctionalInterface
+    public interface Visitor<R> {
+        /**
+         * @param r A found rectangle
+         * @return {@code false} to stop the query
+         */
+        boolean visit(R r);
+    }
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int MIN_ENTRIES = 6;
+
+    /**
+     * A node with the bounding boxes of its entries, which are rectangles in leaves and nodes otherwise. The boxes are
+     * half-open: {@code [minX, maxX)} and {@code [minY, maxY)}.
+     */
+    private static final class Node {
+        private final boolean leaf;
+        private final int[] minX = new int[MAX_ENTRIES + 1];
+        private final int[] minY = new int[MAX_ENTRIES + 1];
+        private final int[] maxX = new int[MAX_ENTRIES + 1];
+        private final int[] maxY = new int[MAX_ENTRIES + 1];
+        private final Object[] children = new Object[MAX_ENTRIES + 1];
+        private int count;
+        private Node parent;
+
+        private Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        private void add(int x0, int y0, int x1, int y1, Object child) {
+            this.minX[this.count] = x0;
+            this.minY[this.count] = y0;
+            this.maxX[this.count] = x1;
+            this.maxY[this.count] = y1;
+            this.children[this.count ++] = child;
+            if(child instanceof Node node)
+                node.parent = this;
+        }
+
+        private void add(Node node) {
+            add(node.boundsMinX(), node.boundsMinY(), node.boundsMaxX(), node.boundsMaxY(), node);
+        }
+
+        private void removeAt(int i) {
+            int last = -- this.count;
+            this.minX[i] = this.minX[last];
+            this.minY[i] = this.minY[last];
+            this.maxX[i] = this.maxX[last];
+            this.maxY[i] = this.maxY[last];
+            this.children[i] = this.children[last];
+            this.children[last] = null;
+        }
+
+        private int indexOf(Object child) {
+            for(int i = 0; i < this.count; i ++)
+                if(this.children[i] == child)
+                    return i;
+            return -1;
+        }
+
+        private int boundsMinX() {
+            int v = Integer.MAX_VALUE;
+            for(int i = 0; i < this.count; i ++)
+                v = Math.min(v, this.minX[i]);
+            return v;
+        }
+        private int boundsMinY() {
+            int v = Integer.MAX_VALUE;
+            for(int i = 0; i < this.count; i ++)
+                v = Math.min(v, this.minY[i]);
+            return v;
+        }
+        private int boundsMaxX() {
+            int v = Integer.MIN_VALUE;
+            for(int i = 0; i < this.count; i ++)
+                v = Math.max(v, this.maxX[i]);
+            return v;
+        }
+        private int boundsMaxY() {
+            int v = Integer.MIN_VALUE;
+            for(int i = 0; i < this.count; i ++)
+                v = Math.max(v, this.maxY[i]);
+            return v;
+        }
+
+        /**
+         * Updates the box of the given child node
+         */
+        private void update(Node child) {
+            int i = indexOf(child);
+            this.minX[i] = child.boundsMinX();
+            this.minY[i] = child.boundsMinY();
+            this.maxX[i] = child.boundsMaxX();
+            this.maxY[i] = child.boundsMaxY();
+        }
+    }
+
+    private Node root = new Node(true);
+    private int size;
+
+    /**
+     * Generates a new empty {@code RTree}
+     */
+    public RTree() {
+
+    }
+
+    /**
+     * Builds a packed {@code RTree} of the given rectangles by Sort-Tile-Recursive bulk loading, which is faster than
+     * inserting them one by one and gives nodes with less overlap
+     * @param rectangles The rectangles to index
+     * @return a new {@code RTree}
+     */
+    public static <R extends Rectangle> RTree<R> load(Collection<? extends R> rectangles) {
+        RTree<R> tree = new RTree<>();
+        if(rectangles.isEmpty())
+            return tree;
+
+        int n = rectangles.size();
+        Object[] items = rectangles.toArray();
+        int[][] boxes = new int[n][];
+        for(int i = 0; i < n; i ++)
+            boxes[i] = box((Rectangle) items[i]);
+
+        boolean leaf = true;
+        while(true) {
+            Node[] level = pack(items, boxes, leaf);
+            if(level.length == 1) {
+                tree.root = level[0];
+                break;
+            }
+
+            items = level;
+            boxes = new int[level.length][];
+            for(int i = 0; i < level.length; i ++)
+                boxes[i] = new int[] {level[i].boundsMinX(), level[i].boundsMinY(), level[i].boundsMaxX(), level[i].boundsMaxY()};
+            leaf = false;
+        }
+        tree.size = n;
+        return tree;
+    }
+
+    /**
+     * Packs one level: sorts the entries by the x center into vertical slices, each slice by the y center and fills
+     * the nodes in that order
+     */
+    private static Node[] pack(Object[] items, int[][] boxes, boolean leaf) {
+        int n = items.length;
+        int nodes = (n + MAX_ENTRIES - 1) / MAX_ENTRIES;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * MAX_ENTRIES;
+
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i ++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.comparingLong(i -> (long) boxes[i][0] + boxes[i][2]));
+        for(int start = 0; start < n; start += sliceSize)
+            Arrays.sort(order, start, Math.min(start + sliceSize, n), Comparator.comparingLong(i -> (long) boxes[i][1] + boxes[i][3]));
+
+        Node[] level = new Node[nodes];
+        for(int i = 0; i < n; i ++) {
+            Node node = level[i / MAX_ENTRIES];
+            if(node == null)
+                node = level[i / MAX_ENTRIES] = new Node(leaf);
+            int[] box = boxes[order[i]];
+            node.add(box[0], box[1], box[2], box[3], items[order[i]]);
+        }
+        return level;
+    }
+
+    /**
+     * @return the box {@code minX, minY, maxX, maxY} of the rectangle, an empty rectangle gets a box without area at
+     * its position, so queries skip it like {@link Rectangle#contains(int, int)} does
+     */
+    private static int[] box(Rectangle r) {
+        if(r.isEmpty())
+            return new int[] {r.x, r.y, r.x, r.y};
+        int x1 = (int) Math.min((long) r.x + r.width, Integer.MAX_VALUE);
+        int y1 = (int) Math.min((long) r.y + r.height, Integer.MAX_VALUE);
+        return new int[] {r.x, r.y, x1, y1};
+    }
+
+    /**
+     * @return the amount of rectangles
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the tree has no rectangles
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all rectangles
+     */
+    public void clear() {
+        this.root = new Node(true);
+        this.size = 0;
+    }
+
+    /**
+     * @return the bounding box of all rectangles, empty ones count by their position, {@code null} if the tree is empty
+     */
+    public Rectangle getBounds() {
+        if(this.size == 0)
+            return null;
+        int x0 = this.root.boundsMinX(), y0 = this.root.boundsMinY();
+        return new Rectangle(x0, y0, this.root.boundsMaxX() - x0, this.root.boundsMaxY() - y0);
+    }
+
+    // ---- insert ----
+
+    /**
+     * Adds the rectangle with its current bounds
+     * @param r The rectangle
+     */
+    public void insert(R r) {
+        int[] box = box(r);
+        insert(box[0], box[1], box[2], box[3], r);
+        this.size ++;
+    }
+
+    private void insert(int x0, int y0, int x1, int y1, Object r) {
+        Node node = this.root;
+        while(!node.leaf)
+            node = (Node) node.children[chooseSubtree(node, x0, y0, x1, y1)];
+
+        node.add(x0, y0, x1, y1, r);
+        adjust(node);
+    }
+
+    /**
+     * @return the entry needing the least enlargement of its area to include the box, the smaller one on ties
+     */
+    private static int chooseSubtree(Node node, int x0, int y0, int x1, int y1) {
+        int best = 0;
+        long bestEnlargement = Long.MAX_VALUE, bestArea = Long.MAX_VALUE;
+        for(int i = 0; i < node.count; i ++) {
+            long area = area(node.minX[i], node.minY[i], node.maxX[i], node.maxY[i]);
+            long enlarged = area(Math.min(x0, node.minX[i]), Math.min(y0, node.minY[i]), Math.max(x1, node.maxX[i]), Math.max(y1, node.maxY[i]));
+            long enlargement = enlarged - area;
+            if(enlargement < bestEnlargement || enlargement == bestEnlargement && area < bestArea) {
+                best = i;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    private static long area(int x0, int y0, int x1, int y1) {
+        return ((long) x1 - x0) * ((long) y1 - y0);
+    }
+
+    /**
+     * Splits overflowing nodes and updates the boxes from the given node up to the root
+     */
+    private void adjust(Node node) {
+        while(node != null) {
+            Node parent = node.parent;
+            if(node.count > MAX_ENTRIES) {
+                Node sibling = split(node);
+                if(parent == null) {
+                    parent = new Node(false);
+                    parent.add(node);
+                    this.root = parent;
+                } else {
+                    parent.update(node);
+                }
+                parent.add(sibling);
+            } else if(parent != null) {
+                parent.update(node);
+            }
+            node = parent;
+        }
+    }
+
+    /**
+     * Splits the node like an R*-tree: the axis with the smallest sum of margins over all distributions is chosen,
+     * on it the distribution with the least overlap, then the least area
+     * @return the new node holding the second group
+     */
+    private static Node split(Node node) {
+        int n = node.count;
+        Integer[][] orders = {order(node, node.minX, node.maxX), order(node, node.maxX, node.minX),
+                order(node, node.minY, node.maxY), order(node, node.maxY, node.minY)};
+
+        // choose the axis
+        long[] margins = new long[4];
+        for(int o = 0; o < 4; o ++)
+            for(int k = MIN_ENTRIES; k <= n - MIN_ENTRIES; k ++)
+                margins[o] += margin(node, orders[o], 0, k) + margin(node, orders[o], k, n);
+        int axis = margins[0] + margins[1] <= margins[2] + margins[3] ? 0 : 2;
+
+        // choose the distribution on that axis
+        Integer[] best = null;
+        int bestK = 0;
+        long bestOverlap = Long.MAX_VALUE, bestArea = Long.MAX_VALUE;
+        for(int o = axis; o < axis + 2; o ++) {
+            for(int k = MIN_ENTRIES; k <= n - MIN_ENTRIES; k ++) {
+                int[] a = bounds(node, orders[o], 0, k);
+                int[] b = bounds(node, orders[o], k, n);
+                long overlap = Math.max(0L, (long) Math.min(a[2], b[2]) - Math.max(a[0], b[0]))
+                        * Math.max(0L, (long) Math.min(a[3], b[3]) - Math.max(a[1], b[1]));
+                long area = area(a[0], a[1], a[2], a[3]) + area(b[0], b[1], b[2], b[3]);
+                if(overlap < bestOverlap || overlap == bestOverlap && area < bestArea) {
+                    best = orders[o];
+                    bestK = k;
+                    bestOverlap = overlap;
+                    bestArea = area;
+                }
+            }
+        }
+
+        int[] minX = node.minX.clone(), minY = node.minY.clone(), maxX = node.maxX.clone(), maxY = node.maxY.clone();
+        Object[] children = node.children.clone();
+        Node sibling = new Node(node.leaf);
+        node.count = 0;
+        Arrays.fill(node.children, null);
+        for(int i = 0; i < n; i ++) {
+            int e = best[i];
+            (i < bestK ? node : sibling).add(minX[e], minY[e], maxX[e], maxY[e], children[e]);
+        }
+        return sibling;
+    }
+
+    private static Integer[] order(Node node, int[] first, int[] second) {
+        Integer[] order = new Integer[node.count];
+        for(int i = 0; i < order.length; i ++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> first[i]).thenComparingInt(i -> second[i]));
+        return order;
+    }
+
+    private static int[] bounds(Node node, Integer[] order, int from, int to) {
+        int[] b = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for(int i = from; i < to; i ++) {
+            int e = order[i];
+            b[0] = Math.min(b[0], node.minX[e]);
+            b[1] = Math.min(b[1], node.minY[e]);
+            b[2] = Math.max(b[2], node.maxX[e]);
+            b[3] = Math.max(b[3], node.maxY[e]);
+        }
+        return b;
+    }
+
+    private static long margin(Node node, Integer[] order, int from, int to) {
+        int[] b = bounds(node, order, from, to);
+        return ((long) b[2] - b[0]) + ((long) b[3] - b[1]);
+    }
+
+    // ---- remove ----
+
+    /**
+     * Removes the rectangle, its bounds must not have changed since it was inserted
+     * @param r The rectangle
+     * @return {@code true} if the rectangle was found
+     */
+    public boolean remove(R r) {
+        int[] box = box(r);
+        Node leaf = findLeaf(this.root, box, r);
+        if(leaf == null)
+            return false;
+
+        leaf.removeAt(leaf.indexOf(r));
+        this.size --;
+        condense(leaf);
+        return true;
+    }
+
+    private static Node findLeaf(Node node, int[] box, Object r) {
+        for(int i = 0; i < node.count; i ++) {
+            if(node.minX[i] > box[0] || node.minY[i] > box[1] || node.maxX[i] < box[2] || node.maxY[i] < box[3])
+                continue;
+            if(node.leaf) {
+                if(node.children[i] == r)
+                    return node;
+            } else {
+                Node leaf = findLeaf((Node) node.children[i], box, r);
+                if(leaf != null)
+                    return leaf;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes underfull nodes on the path to the root and inserts their rectangles again
+     */
+    private void condense(Node leaf) {
+        List<Node> orphans = new ArrayList<>();
+        Node node = leaf;
+        while(node.parent != null) {
+            Node parent = node.parent;
+            if(node.count < MIN_ENTRIES) {
+                parent.removeAt(parent.indexOf(node));
+                orphans.add(node);
+            } else {
+                parent.update(node);
+            }
+            node = parent;
+        }
+
+        while(!this.root.leaf && this.root.count == 1) {
+            this.root = (Node) this.root.children[0];
+            this.root.parent = null;
+        }
+        if(!this.root.leaf && this.root.count == 0)
+            this.root = new Node(true);
+
+        for(Node orphan: orphans)
+            reinsert(orphan);
+    }
+
+    private void reinsert(Node node) {
+        for(int i = 0; i < node.count; i ++) {
+            if(node.leaf)
+                insert(node.minX[i], node.minY[i], node.maxX[i], node.maxY[i], node.children[i]);
+            else
+                reinsert((Node) node.children[i]);
+        }
+    }
+
+    // ---- queries ----
+
+    /**
+     * Visits all rectangles containing the point
+     * @param visitor Receives the rectangles, may stop the query
+     * @return {@code false} if the visitor stopped the query
+     * @see Rectangle#contains(int, int)
+     */
+    public boolean search(int x, int y, Visitor<? super R> visitor) {
+        return this.size == 0 || search(this.root, x, y, x + 1L, y + 1L, visitor);
+    }
+
+    /**
+     * Visits all rectangles intersecting the area
+     * @param area The area, an empty area intersects nothing
+     * @param visitor Receives the rectangles, may stop the query
+     * @return {@code false} if the visitor stopped the query
+     * @see Rectangle#intersects(Rectangle)
+     */
+    public boolean search(Rectangle area, Visitor<? super R> visitor) {
+        if(this.size == 0 || area.isEmpty())
+            return true;
+        return search(this.root, area.x, area.y, (long) area.x + area.width, (long) area.y + area.height, visitor);
+    }
+
+    /**
+     * @return all rectangles containing the point
+     */
+    public List<R> search(int x, int y) {
+        List<R> found = new ArrayList<>();
+        search(x, y, found::add);
+        return found;
+    }
+
+    /**
+     * @return all rectangles intersecting the area
+     */
+    public List<R> search(Rectangle area) {
+        List<R> found = new ArrayList<>();
+        search(area, found::add);
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> boolean search(Node node, long x0, long y0, long x1, long y1, Visitor<? super R> visitor) {
+        for(int i = 0; i < node.count; i ++) {
+            if(node.minX[i] >= x1 || x0 >= node.maxX[i] || node.minY[i] >= y1 || y0 >= node.maxY[i])
+                continue;
+
+            if(node.leaf) {
+                if(node.minX[i] < node.maxX[i] && node.minY[i] < node.maxY[i] && !visitor.visit((R) node.children[i]))
+                    return false;
+            } else if(!search((Node) node.children[i], x0, y0, x1, y1, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the rectangles nearest to the point, searching best-first so only the nodes closer than the
+     * {@code k}-th result are opened
+     * @param k Maximum amount of rectangles
+     * @return up to {@code k} non-empty rectangles ordered by their distance to the point, containing ones first
+     */
+    public List<R> nearest(int x, int y, int k) {
+        List<R> found = new ArrayList<>(Math.min(k, this.size));
+        nearest(x, y, k, found::add);
+        return found;
+    }
+
+    /**
+     * Visits the rectangles nearest to the point in order of their distance
+     * @param k Maximum amount of rectangles
+     * @param visitor Receives the rectangles, may stop the query
+     */
+    @SuppressWarnings("unchecked")
+    public void nearest(int x, int y, int k, Visitor<? super R> visitor) {
+        if(k <= 0 || this.size == 0)
+            return;
+
+        record Candidate(long distance, Object item, boolean rectangle) {}
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingLong(Candidate::distance));
+        queue.add(new Candidate(0, this.root, false));
+        int visited = 0;
+        while(!queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if(candidate.rectangle()) {
+                if(!visitor.visit((R) candidate.item()) || ++ visited == k)
+                    return;
+                continue;
+            }
+
+            Node node = (Node) candidate.item();
+            for(int i = 0; i < node.count; i ++)
+                if(!node.leaf || node.minX[i] < node.maxX[i] && node.minY[i] < node.maxY[i])
+                    queue.add(new Candidate(distance(node, i, x, y), node.children[i], node.leaf));
+        }
+    }
+
+    /**
+     * @return the squared distance between the point and the box of the entry, {@code 0} if it is inside
+     */
+    private static long distance(Node node, int i, int x, int y) {
+        long dx = Math.max(Math.max((long) node.minX[i] - x, (long) x - node.maxX[i]), 0);
+        long dy = Math.max(Math.max((long) node.minY[i] - y, (long) y - node.maxY[i]), 0);
+        return dx * dx + dy * dy;
+    }
+}
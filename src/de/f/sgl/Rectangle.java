@@ -70,6 +70,115 @@ public class Rectangle {
         return new Point(this.x + this.width, this.y + this.height);
     }
 
+    /**
+     * @return the x coordinate of the right edge, like {@link #getSecondPosition()} without creating a {@link Point},
+     * clamped to the {@code int} range instead of overflowing
+     */
+    public int getMaxX() {
+        return Math.clamp((long) this.x + this.width, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+    /**
+     * @return the y coordinate of the bottom edge, like {@link #getSecondPosition()} without creating a {@link Point},
+     * clamped to the {@code int} range instead of overflowing
+     */
+    public int getMaxY() {
+        return Math.clamp((long) this.y + this.height, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sets position and size at once
+     * @return {@code this}
+     */
+    public Rectangle setBounds(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+    /**
+     * Copies position and size of the given {@code Rectangle}
+     * @return {@code this}
+     */
+    public Rectangle setBounds(Rectangle r) {
+        return setBounds(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * @return the area, {@code 0} if the {@code Rectangle} is empty
+     */
+    public long area() {
+        return isEmpty() ? 0 : (long) this.width * this.height;
+    }
+
+    /**
+     * Computes the smallest {@code Rectangle} containing both, an empty one is ignored. A size over
+     * {@link Integer#MAX_VALUE} is clamped.
+     * @param r The other {@code Rectangle}
+     * @param dst Receives the result, may be {@code this} or {@code r}
+     * @return {@code dst}
+     */
+    public Rectangle union(Rectangle r, Rectangle dst) {
+        if(r.isEmpty())
+            return dst.setBounds(this);
+        if(isEmpty())
+            return dst.setBounds(r);
+
+        int x0 = Math.min(this.x, r.x), y0 = Math.min(this.y, r.y);
+        int x1 = Math.max(getMaxX(), r.getMaxX()), y1 = Math.max(getMaxY(), r.getMaxY());
+        int width = (int) Math.min((long) x1 - x0, Integer.MAX_VALUE);
+        int height = (int) Math.min((long) y1 - y0, Integer.MAX_VALUE);
+        return dst.setBounds(x0, y0, width, height);
+    }
+
+    /**
+     * Computes the area shared by both, the result is empty if they do not intersect
+     * @param r The other {@code Rectangle}
+     * @param dst Receives the result, may be {@code this} or {@code r}
+     * @return {@code dst}
+     */
+    public Rectangle intersection(Rectangle r, Rectangle dst) {
+        int x0 = Math.max(this.x, r.x), y0 = Math.max(this.y, r.y);
+        int x1 = Math.min(getMaxX(), r.getMaxX()), y1 = Math.min(getMaxY(), r.getMaxY());
+        return dst.setBounds(x0, y0, (int) Math.max((long) x1 - x0, 0), (int) Math.max((long) y1 - y0, 0));
+    }
+
+    /**
+     * @return {@code true} if the width or height is not positive, an empty {@code Rectangle} contains nothing
+     */
+    public boolean isEmpty() {
+        return this.width <= 0 || this.height <= 0;
+    }
+
+    /**
+     * Checks if the point is inside, the right and bottom edge are outside like in {@link java.awt.Rectangle}
+     * @return {@code boolean}
+     */
+    public boolean contains(int x, int y) {
+        return !isEmpty() && x >= this.x && y >= this.y && (long) x - this.x < this.width && (long) y - this.y < this.height;
+    }
+    public boolean contains(Point p) {
+        return contains(p.getX(), p.getY());
+    }
+
+    /**
+     * Checks if the given {@code Rectangle} is completely inside
+     * @return {@code boolean}
+     */
+    public boolean contains(Rectangle r) {
+        return !isEmpty() && !r.isEmpty() && r.x >= this.x && r.y >= this.y
+                && (long) r.x + r.width <= (long) this.x + this.width && (long) r.y + r.height <= (long) this.y + this.height;
+    }
+
+    /**
+     * Checks if both {@code Rectangle}s share at least one point, empty ones never intersect
+     * @return {@code boolean}
+     */
+    public boolean intersects(Rectangle r) {
+        return !isEmpty() && !r.isEmpty() && r.x < (long) this.x + this.width && this.x < (long) r.x + r.width
+                && r.y < (long) this.y + this.height && this.y < (long) r.y + r.height;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
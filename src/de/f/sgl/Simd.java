@@ -0,0 +1,112 @@
+package de.f.sgl;
+
+/**
+ * Bulk operations on coordinate arrays of {@link PointBuffer} and {@link VectorBuffer}
+ *
+ * <p>If the module {@code jdk.incubator.vector} is present the operations run on {@link SimdKernels}, otherwise on
+ * the scalar loops of this class. {@link SimdKernels} is only loaded in the first case, so the incubator module is
+ * not required at runtime. Compiling {@link SimdKernels} requires {@code --add-modules jdk.incubator.vector}, which the
+ * project passes to javac. Both paths compute the same results, the affine transform uses fused multiply-adds in
+ * each. Setting the system property {@code de.f.sgl.simd} to {@code false} forces the scalar loops.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+final class Simd {
+    static final boolean AVAILABLE = !"false".equals(System.getProperty("de.f.sgl.simd"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private Simd() {}
+
+    static void translate(int[] xs, int[] ys, int n, int dx, int dy) {
+        if(AVAILABLE) {
+            SimdKernels.translate(xs, ys, n, dx, dy);
+            return;
+        }
+        for(int i = 0; i < n; i ++) {
+            xs[i] += dx;
+            ys[i] += dy;
+        }
+    }
+
+    static void translate(double[] xs, double[] ys, int n, double dx, double dy) {
+        if(AVAILABLE) {
+            SimdKernels.translate(xs, ys, n, dx, dy);
+            return;
+        }
+        for(int i = 0; i < n; i ++) {
+            xs[i] += dx;
+            ys[i] += dy;
+        }
+    }
+
+    /**
+     * {@code x' = m00 * x + m01 * y + m02}, {@code y' = m10 * x + m11 * y + m12}
+     */
+    static void transform(double[] xs, double[] ys, int n, double m00, double m01, double m02, double m10, double m11, double m12) {
+        if(AVAILABLE) {
+            SimdKernels.transform(xs, ys, n, m00, m01, m02, m10, m11, m12);
+            return;
+        }
+        for(int i = 0; i < n; i ++) {
+            double x = xs[i], y = ys[i];
+            xs[i] = Math.fma(x, m00, Math.fma(y, m01, m02));
+            ys[i] = Math.fma(x, m10, Math.fma(y, m11, m12));
+        }
+    }
+
+    /**
+     * Transforms {@code int} coordinates and rounds the results, there is no vectorized kernel for the conversion
+     */
+    static void transform(int[] xs, int[] ys, int n, double m00, double m01, double m02, double m10, double m11, double m12) {
+        for(int i = 0; i < n; i ++) {
+            double x = xs[i], y = ys[i];
+            xs[i] = (int) Math.round(Math.fma(x, m00, Math.fma(y, m01, m02)));
+            ys[i] = (int) Math.round(Math.fma(x, m10, Math.fma(y, m11, m12)));
+        }
+    }
+
+    /**
+     * Writes {@code minX, minY, maxX, maxY} to {@code dst}, {@code n} must be positive
+     */
+    static void bounds(int[] xs, int[] ys, int n, int[] dst) {
+        if(AVAILABLE) {
+            SimdKernels.bounds(xs, ys, n, dst);
+            return;
+        }
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for(int i = 0; i < n; i ++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        dst[0] = minX;
+        dst[1] = minY;
+        dst[2] = maxX;
+        dst[3] = maxY;
+    }
+
+    /**
+     * Writes {@code minX, minY, maxX, maxY} to {@code dst}, {@code n} must be positive
+     */
+    static void bounds(double[] xs, double[] ys, int n, double[] dst) {
+        if(AVAILABLE) {
+            SimdKernels.bounds(xs, ys, n, dst);
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < n; i ++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        dst[0] = minX;
+        dst[1] = minY;
+        dst[2] = maxX;
+        dst[3] = maxY;
+    }
+}
@@ -0,0 +1,117 @@
+package de.f.sgl;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vectorized kernels of {@link Simd}, only loaded if the module {@code jdk.incubator.vector} is present
+ *
+ * <p>Each kernel processes whole vectors of the preferred species and the remaining tail with a scalar loop.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+final class SimdKernels {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private SimdKernels() {}
+
+    static void translate(int[] xs, int[] ys, int n, int dx, int dy) {
+        int i = 0;
+        for(int bound = INTS.loopBound(n); i < bound; i += INTS.length()) {
+            IntVector.fromArray(INTS, xs, i).add(dx).intoArray(xs, i);
+            IntVector.fromArray(INTS, ys, i).add(dy).intoArray(ys, i);
+        }
+        for(; i < n; i ++) {
+            xs[i] += dx;
+            ys[i] += dy;
+        }
+    }
+
+    static void translate(double[] xs, double[] ys, int n, double dx, double dy) {
+        int i = 0;
+        for(int bound = DOUBLES.loopBound(n); i < bound; i += DOUBLES.length()) {
+            DoubleVector.fromArray(DOUBLES, xs, i).add(dx).intoArray(xs, i);
+            DoubleVector.fromArray(DOUBLES, ys, i).add(dy).intoArray(ys, i);
+        }
+        for(; i < n; i ++) {
+            xs[i] += dx;
+            ys[i] += dy;
+        }
+    }
+
+    static void transform(double[] xs, double[] ys, int n, double m00, double m01, double m02, double m10, double m11, double m12) {
+        DoubleVector v00 = DoubleVector.broadcast(DOUBLES, m00);
+        DoubleVector v10 = DoubleVector.broadcast(DOUBLES, m10);
+        int i = 0;
+        for(int bound = DOUBLES.loopBound(n); i < bound; i += DOUBLES.length()) {
+            DoubleVector x = DoubleVector.fromArray(DOUBLES, xs, i);
+            DoubleVector y = DoubleVector.fromArray(DOUBLES, ys, i);
+            x.fma(v00, y.fma(m01, m02)).intoArray(xs, i);
+            x.fma(v10, y.fma(m11, m12)).intoArray(ys, i);
+        }
+        for(; i < n; i ++) {
+            double x = xs[i], y = ys[i];
+            xs[i] = Math.fma(x, m00, Math.fma(y, m01, m02));
+            ys[i] = Math.fma(x, m10, Math.fma(y, m11, m12));
+        }
+    }
+
+    static void bounds(int[] xs, int[] ys, int n, int[] dst) {
+        IntVector minX = IntVector.broadcast(INTS, Integer.MAX_VALUE), minY = minX;
+        IntVector maxX = IntVector.broadcast(INTS, Integer.MIN_VALUE), maxY = maxX;
+        int i = 0;
+        for(int bound = INTS.loopBound(n); i < bound; i += INTS.length()) {
+            IntVector x = IntVector.fromArray(INTS, xs, i);
+            IntVector y = IntVector.fromArray(INTS, ys, i);
+            minX = minX.min(x);
+            maxX = maxX.max(x);
+            minY = minY.min(y);
+            maxY = maxY.max(y);
+        }
+
+        int minXs = minX.reduceLanes(VectorOperators.MIN), minYs = minY.reduceLanes(VectorOperators.MIN);
+        int maxXs = maxX.reduceLanes(VectorOperators.MAX), maxYs = maxY.reduceLanes(VectorOperators.MAX);
+        for(; i < n; i ++) {
+            minXs = Math.min(minXs, xs[i]);
+            maxXs = Math.max(maxXs, xs[i]);
+            minYs = Math.min(minYs, ys[i]);
+            maxYs = Math.max(maxYs, ys[i]);
+        }
+        dst[0] = minXs;
+        dst[1] = minYs;
+        dst[2] = maxXs;
+        dst[3] = maxYs;
+    }
+
+    static void bounds(double[] xs, double[] ys, int n, double[] dst) {
+        DoubleVector minX = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY), minY = minX;
+        DoubleVector maxX = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY), maxY = maxX;
+        int i = 0;
+        for(int bound = DOUBLES.loopBound(n); i < bound; i += DOUBLES.length()) {
+            DoubleVector x = DoubleVector.fromArray(DOUBLES, xs, i);
+            DoubleVector y = DoubleVector.fromArray(DOUBLES, ys, i);
+            minX = minX.min(x);
+            maxX = maxX.max(x);
+            minY = minY.min(y);
+            maxY = maxY.max(y);
+        }
+
+        double minXs = minX.reduceLanes(VectorOperators.MIN), minYs = minY.reduceLanes(VectorOperators.MIN);
+        double maxXs = maxX.reduceLanes(VectorOperators.MAX), maxYs = maxY.reduceLanes(VectorOperators.MAX);
+        for(; i < n; i ++) {
+            minXs = Math.min(minXs, xs[i]);
+            maxXs = Math.max(maxXs, xs[i]);
+            minYs = Math.min(minYs, ys[i]);
+            maxYs = Math.max(maxYs, ys[i]);
+        }
+        dst[0] = minXs;
+        dst[1] = minYs;
+        dst[2] = maxXs;
+        dst[3] = maxYs;
+    }
+}
@@ -0,0 +1,131 @@
+package de.f.sgl;
+
+import de.f.utils.IntList;
+
+/**
+ * A measured line of text in one {@link Font}
+ *
+ * <p>Stores the x offset of every char, so widths of ranges, caret positions and hit tests are lookups and wrapping
+ * measures nothing again. A {@code TextRun} is immutable, it keeps its own copy of the text.</p>
+ * @see TextRunCache
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public final class TextRun {
+    private final FontMetrics metrics;
+    private final String text;
+    private final float[] offsets;
+
+    /**
+     * Measures the given range of the text
+     */
+    public TextRun(FontMetrics metrics, CharSequence text, int start, int end) {
+        this.metrics = metrics;
+        this.offsets = metrics.getOffsets(text, start, end, new float[end - start + 1]);
+        this.text = text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Measures the whole text
+     */
+    public TextRun(FontMetrics metrics, CharSequence text) {
+        this(metrics, text, 0, text.length());
+    }
+
+    public Font getFont() {
+        return this.metrics.getFont();
+    }
+    public FontMetrics getMetrics() {
+        return metrics;
+    }
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the amount of chars
+     */
+    public int length() {
+        return this.text.length();
+    }
+
+    private void checkIndex(int index) {
+        if(index > this.text.length() || index < 0)
+            throw new IndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Size: " + this.text.length());
+    }
+
+    /**
+     * @return the width of the whole run
+     */
+    public float getWidth() {
+        return this.offsets[this.text.length()];
+    }
+
+    /**
+     * @return the width of the chars from {@code start} to {@code end}
+     */
+    public float getWidth(int start, int end) {
+        checkIndex(start);
+        checkIndex(end);
+        if(start > end)
+            throw new IndexOutOfBoundsException("Start is after end\n\tStart: " + start + ", End: " + end);
+        return this.offsets[end] - this.offsets[start];
+    }
+
+    /**
+     * @param index Index of a char, or {@link #length()} for the end of the run
+     * @return the x offset of the caret before the char
+     */
+    public float getX(int index) {
+        checkIndex(index);
+        return this.offsets[index];
+    }
+
+    /**
+     * @param x Offset from the start of the run
+     * @return the index of the caret position nearest to {@code x}, never inside a surrogate pair
+     */
+    public int getIndexAt(float x) {
+        int low = 0, high = this.text.length();
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(this.offsets[mid] < x)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        if(low > 0 && x - this.offsets[low - 1] < this.offsets[low] - x)
+            low --;
+        if(low > 0 && low < this.text.length() && Character.isLowSurrogate(this.text.charAt(low)))
+            low --;
+        return low;
+    }
+
+    public float getAscent() {
+        return this.metrics.getAscent();
+    }
+    public float getDescent() {
+        return this.metrics.getDescent();
+    }
+    public float getHeight() {
+        return this.metrics.getAscent() + this.metrics.getDescent();
+    }
+
+    /**
+     * Breaks the run into lines with the measured offsets
+     * @return the amount of lines
+     * @see FontMetrics#wrap(CharSequence, int, int, float, IntList)
+     */
+    public int wrap(float maxWidth, IntList lines) {
+        float[] offsets = this.offsets;
+        return FontMetrics.wrap(this.text, 0, this.text.length(), maxWidth, lines,
+                (index, codePoint) -> offsets[index + Character.charCount(codePoint)] - offsets[index]);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getName() + "[" + getFont() + ", \"" + this.text + "\", width=" + getWidth() + "]";
+    }
+}
@@ -0,0 +1,138 @@
+package de.f.sgl;
+
+import de.f.utils.DoubleMapCache;
+
+/**
+ * A bounded LRU cache of {@link TextRun}s keyed by {@link Font} and text
+ *
+ * <p>Labels drawn every frame are measured once and then looked up. The text is compared by content, so a
+ * {@link de.f.utils.StringBuilder} or a range of one finds the run of an equal {@link String}. Only a miss copies
+ * the text. The cache is thread-safe.</p>
+ *
+ * <pre>{@code
+ * TextRun run = cache.layout(font, label);
+ * float x = (width - run.getWidth()) / 2;
+ * }</pre>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class TextRunCache {
+    private static final long DEFAULT_MAXIMUM_SIZE = 1 << 12;
+
+    private final DoubleMapCache<Font, Key, TextRun> cache;
+
+    /**
+     * Generates a new {@code TextRunCache} holding up to {@value DEFAULT_MAXIMUM_SIZE} runs
+     */
+    public TextRunCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Generates a new {@code TextRunCache}
+     * @param maximumSize Maximum amount of runs, the least recently used is evicted first
+     */
+    public TextRunCache(long maximumSize) {
+        this.cache = new DoubleMapCache.Builder<Font, Key, TextRun>()
+                .maximumSize(maximumSize)
+                .policy(DoubleMapCache.Policy.LRU)
+                .build();
+    }
+
+    /**
+     * @return the cached or newly measured run of the whole text
+     */
+    public TextRun layout(Font font, CharSequence text) {
+        return layout(font, text, 0, text.length());
+    }
+
+    /**
+     * @return the cached or newly measured run of the given range of the text
+     */
+    public TextRun layout(Font font, CharSequence text, int start, int end) {
+        if(start < 0 || end > text.length() || start > end)
+            throw new IndexOutOfBoundsException("Range is out of bounds\n\tStart: " + start + ", End: " + end + ", Size: " + text.length());
+
+        TextRun run = this.cache.getIfPresent(font, new Key(text, start, end));
+        if(run == null) {
+            // two threads may measure the same text, both runs are equal
+            run = new TextRun(FontMetrics.of(font), text, start, end);
+            this.cache.put(font, new Key(run.getText(), 0, run.length()), run);
+        }
+        return run;
+    }
+
+    /**
+     * Removes the run of the text
+     */
+    public void invalidate(Font font, CharSequence text) {
+        this.cache.remove(font, new Key(text, 0, text.length()));
+    }
+
+    /**
+     * Removes all runs
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    /**
+     * @return the amount of cached runs
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
+    /**
+     * @return the hit and miss counts of the cache
+     */
+    public DoubleMapCache.Stats stats() {
+        return this.cache.stats();
+    }
+
+    /**
+     * A range of a {@link CharSequence} compared by content, cached keys wrap the immutable text of their run
+     */
+    private static final class Key {
+        private final CharSequence text;
+        private final int start, end;
+        private final int hash;
+
+        private Key(CharSequence text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+
+            int hash = 0;
+            for(int i = start; i < end; i ++)
+                hash = 31 * hash + text.charAt(i);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key key = (Key) o;
+            int length = this.end - this.start;
+            if (this.hash != key.hash || length != key.end - key.start) return false;
+            for(int i = 0; i < length; i ++) {
+                if(this.text.charAt(this.start + i) != key.text.charAt(key.start + i))
+                    return false;
+            }
+            return true;
+        }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getName() + "[size=" + size() + ", " + stats() + "]";
+    }
+}
@@ -0,0 +1,281 @@
+package de.f.sgl;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable list of {@code double} coordinates stored as two parallel arrays
+ *
+ * <p>A polyline of a million vertices is two arrays instead of a million {@link Vector}s, and the bulk transforms
+ * stream over them without allocating, vectorized if the module {@code jdk.incubator.vector} is present.
+ * {@link Vector}s are only created by {@link #toVector(int)}, {@link #get(int, Vector)} fills an existing one.</p>
+ * @see PointBuffer
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class VectorBuffer {
+    private double[] xs;
+    private double[] ys;
+    private int size;
+    private int modCount;
+
+    private static final int DEFAULT_SIZE = 1 << 4;
+
+    /**
+     * Generates a new {@code VectorBuffer} with the starting capacity of {@value DEFAULT_SIZE}
+     */
+    public VectorBuffer() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Generates a new {@code VectorBuffer} with the given starting capacity
+     * @param startCapacity Starting capacity of the {@code VectorBuffer}
+     */
+    public VectorBuffer(int startCapacity) {
+        if(startCapacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative\n\tCapacity: " + startCapacity);
+        this.xs = new double[startCapacity];
+        this.ys = new double[startCapacity];
+    }
+
+    /**
+     * @return the amount of vectors
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the {@code VectorBuffer} is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Clears the {@code VectorBuffer} but keeps its capacity
+     */
+    public void clear() {
+        this.size = 0;
+        this.modCount ++;
+    }
+
+    /**
+     * Grows the arrays so they can hold the given amount of vectors
+     * @param capacity Minimum capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity <= this.xs.length)
+            return;
+
+        int newCapacity = (int) Math.min(Math.max((long) this.xs.length << 1, capacity), Integer.MAX_VALUE - 8);
+        this.xs = Arrays.copyOf(this.xs, newCapacity);
+        this.ys = Arrays.copyOf(this.ys, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if(index >= this.size || index < 0)
+            throw new IndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Size: " + this.size);
+    }
+
+    /**
+     * Appends the given coordinates
+     * @return {@code this}
+     */
+    public VectorBuffer add(double x, double y) {
+        if(this.size == this.xs.length)
+            ensureCapacity(this.size + 1);
+
+        this.xs[this.size] = x;
+        this.ys[this.size ++] = y;
+        this.modCount ++;
+        return this;
+    }
+
+    /**
+     * Appends the coordinates of the given {@link Vector}
+     * @return {@code this}
+     */
+    public VectorBuffer add(Vector v) {
+        return add(v.x, v.y);
+    }
+
+    public double getX(int index) {
+        checkIndex(index);
+        return this.xs[index];
+    }
+    public double getY(int index) {
+        checkIndex(index);
+        return this.ys[index];
+    }
+
+    /**
+     * Sets the coordinates at the given index
+     */
+    public void set(int index, double x, double y) {
+        checkIndex(index);
+        this.xs[index] = x;
+        this.ys[index] = y;
+    }
+
+    /**
+     * Copies the coordinates at the given index into the given {@link Vector}
+     * @return {@code dst}
+     */
+    public Vector get(int index, Vector dst) {
+        checkIndex(index);
+        dst.x = this.xs[index];
+        dst.y = this.ys[index];
+        return dst;
+    }
+
+    /**
+     * @return a new {@link Vector} of the coordinates at the given index
+     */
+    public Vector toVector(int index) {
+        return get(index, new Vector());
+    }
+
+    /**
+     * Moves all vectors
+     * @return {@code this}
+     */
+    public VectorBuffer translate(double dx, double dy) {
+        Simd.translate(this.xs, this.ys, this.size, dx, dy);
+        return this;
+    }
+
+    /**
+     * Scales all vectors relative to the origin
+     * @return {@code this}
+     */
+    public VectorBuffer scale(double sx, double sy) {
+        return transform(sx, 0, 0, 0, sy, 0);
+    }
+
+    /**
+     * Rotates all vectors around the origin
+     * @param angle Angle in radians
+     * @return {@code this}
+     */
+    public VectorBuffer rotate(double angle) {
+        return rotate(angle, 0, 0);
+    }
+
+    /**
+     * Rotates all vectors around the given center
+     * @param angle Angle in radians
+     * @return {@code this}
+     */
+    public VectorBuffer rotate(double angle, double cx, double cy) {
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        return transform(cos, -sin, cx - cos * cx + sin * cy, sin, cos, cy - sin * cx - cos * cy);
+    }
+
+    /**
+     * Applies an affine transform to all vectors: {@code x' = m00 * x + m01 * y + m02},
+     * {@code y' = m10 * x + m11 * y + m12}
+     * @return {@code this}
+     * @see java.awt.geom.AffineTransform
+     */
+    public VectorBuffer transform(double m00, double m01, double m02, double m10, double m11, double m12) {
+        Simd.transform(this.xs, this.ys, this.size, m00, m01, m02, m10, m11, m12);
+        return this;
+    }
+
+    /**
+     * Computes the bounding box of all vectors
+     * @param dst Array of at least four values, receives {@code minX, minY, maxX, maxY}
+     * @return {@code dst}
+     * @throws IllegalStateException If the {@code VectorBuffer} is empty
+     */
+    public double[] getBounds(double[] dst) throws IllegalStateException {
+        if(this.size == 0)
+            throw new IllegalStateException("VectorBuffer is empty");
+        Simd.bounds(this.xs, this.ys, this.size, dst);
+        return dst;
+    }
+
+    /**
+     * @return a new {@link Cursor} placed before the first vector
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Iterates over the vectors without creating {@link Vector}s
+     *
+     * <pre>{@code
+     * VectorBuffer.Cursor cursor = buffer.cursor();
+     * while(cursor.next())
+     *     draw(cursor.x(), cursor.y());
+     * }</pre>
+     */
+    public final class Cursor {
+        private final int expectedModCount = VectorBuffer.this.modCount;
+        private int index = -1;
+
+        private Cursor() {}
+
+        /**
+         * Moves to the next vector
+         * @return {@code false} if there is no next vector
+         */
+        public boolean next() {
+            if(VectorBuffer.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+            if(this.index < VectorBuffer.this.size)
+                this.index ++;
+            return this.index < VectorBuffer.this.size;
+        }
+
+        /**
+         * @return the index of the current vector
+         */
+        public int index() {
+            if(this.index < 0 || this.index >= VectorBuffer.this.size)
+                throw new NoSuchElementException();
+            return this.index;
+        }
+
+        public double x() {
+            return VectorBuffer.this.xs[index()];
+        }
+        public double y() {
+            return VectorBuffer.this.ys[index()];
+        }
+
+        /**
+         * Sets the coordinates of the current vector
+         */
+        public void set(double x, double y) {
+            int index = index();
+            VectorBuffer.this.xs[index] = x;
+            VectorBuffer.this.ys[index] = y;
+        }
+
+        /**
+         * Copies the current vector into the given {@link Vector}
+         * @return {@code dst}
+         */
+        public Vector get(Vector dst) {
+            return VectorBuffer.this.get(index(), dst);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(this.getClass().getName()).append("[");
+        for(int i = 0; i < this.size; i ++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append("[").append(this.xs[i]).append(", ").append(this.ys[i]).append("]");
+        }
+        return sb.append("]").toString();
+    }
+}
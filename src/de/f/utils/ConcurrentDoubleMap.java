@@ -0,0 +1,369 @@
+package de.f.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe {@link DoubleMap}
+ *
+ * <p>The entries are split by the hash of both keys into segments, each a {@link DoubleMap} guarded by its own
+ * {@link StampedLock}, so threads working on different segments never wait for each other. Reads first try an
+ * optimistic read without locking and only take the read lock if a writer changed the segment meanwhile.</p>
+ *
+ * <p>{@link #computeIfAbsent(Object, Object, BiFunction)} and {@link #merge(Object, Object, Object, BiFunction)} are
+ * atomic, their functions are called while the segment is locked and must not change this map. Iteration is weakly
+ * consistent: each segment is copied when the iterator reaches it, so it never throws a
+ * {@link java.util.ConcurrentModificationException} but may miss changes made after it started.</p>
+ * @see DoubleMap
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class ConcurrentDoubleMap<K1, K2, V> implements Iterable<DoubleMap.Entry<K1, K2, V>> {
+    private static final class Segment<K1, K2, V> {
+        private final StampedLock lock = new StampedLock();
+        private final DoubleMap<K1, K2, V> map;
+
+        private Segment(int expectedSize) {
+            this.map = new DoubleMap<>(expectedSize);
+        }
+    }
+
+    private final Segment<K1, K2, V>[] segments;
+    /** Shift selecting the top bits of the mixed hash as segment index */
+    private final int shift;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Generates a new empty {@code ConcurrentDoubleMap} with four segments per available processor
+     */
+    public ConcurrentDoubleMap() {
+        this(0, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Generates a new empty {@code ConcurrentDoubleMap}
+     * @param expectedSize Expected amount of entries
+     * @param concurrencyLevel Expected amount of concurrently writing threads, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentDoubleMap(int expectedSize, int concurrencyLevel) {
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("Expected size must not be negative\n\tExpected size: " + expectedSize);
+        if(concurrencyLevel < 1)
+            throw new IllegalArgumentException("Concurrency level must be positive\n\tConcurrency level: " + concurrencyLevel);
+
+        int segments = Math.max(Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1), 2);
+        this.segments = (Segment<K1, K2, V>[]) new Segment<?, ?, ?>[segments];
+        this.shift = 32 - Integer.numberOfTrailingZeros(segments);
+        for(int i = 0; i < segments; i ++)
+            this.segments[i] = new Segment<>(expectedSize / segments);
+    }
+
+    /**
+     * The {@link DoubleMap} of a segment picks its slot by the low bits of the hash, so the segment uses the top bits
+     */
+    private Segment<K1, K2, V> segment(int hash) {
+        return this.segments[hash * 0x9E3779B9 >>> this.shift];
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the value of both keys or {@code null}
+     */
+    public V get(K1 k1, K2 k2) {
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.tryOptimisticRead();
+        if(stamp != 0) {
+            try {
+                DoubleMap.Entry<K1, K2, V> entry = segment.map.entry(k1, k2, hash);
+                V v = entry != null ? entry.v : null;
+                if(segment.lock.validate(stamp))
+                    return v;
+            } catch(RuntimeException e) {
+                // a writer changed the segment during the read, read it again with the lock
+            }
+        }
+
+        stamp = segment.lock.readLock();
+        try {
+            DoubleMap.Entry<K1, K2, V> entry = segment.map.entry(k1, k2, hash);
+            return entry != null ? entry.v : null;
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return {@code true} if a value is associated with both keys, even if it is {@code null}
+     */
+    public boolean containsKey(K1 k1, K2 k2) {
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.tryOptimisticRead();
+        if(stamp != 0) {
+            try {
+                boolean contains = segment.map.entry(k1, k2, hash) != null;
+                if(segment.lock.validate(stamp))
+                    return contains;
+            } catch(RuntimeException e) {
+                // a writer changed the segment during the read, read it again with the lock
+            }
+        }
+
+        stamp = segment.lock.readLock();
+        try {
+            return segment.map.entry(k1, k2, hash) != null;
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Associates the value with both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value
+     * @return the previous value or {@code null}
+     */
+    public V put(K1 k1, K2 k2, V v) {
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            DoubleMap.Entry<K1, K2, V> entry = segment.map.entry(k1, k2, hash);
+            if(entry != null) {
+                V old = entry.v;
+                entry.v = v;
+                return old;
+            }
+
+            segment.map.add(k1, k2, v, hash);
+            this.size.increment();
+            return null;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Associates the value with both keys if they have no value or {@code null} yet
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value
+     * @return the current value or {@code null} if the given value was put
+     */
+    public V putIfAbsent(K1 k1, K2 k2, V v) {
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            DoubleMap.Entry<K1, K2, V> entry = segment.map.entry(k1, k2, hash);
+            if(entry == null) {
+                segment.map.add(k1, k2, v, hash);
+                this.size.increment();
+                return null;
+            }
+
+            V old = entry.v;
+            if(old == null)
+                entry.v = v;
+            return old;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the value of both keys or atomically computes and puts it if there is none. Present values are returned
+     * without taking the write lock.
+     * @param k1 First key
+     * @param k2 Second key
+     * @param function Computes the value from both keys, a {@code null} result is not put
+     * @return the current or computed value
+     */
+    public V computeIfAbsent(K1 k1, K2 k2, BiFunction<? super K1, ? super K2, ? extends V> function) {
+        V v = get(k1, k2);
+        if(v != null)
+            return v;
+
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            DoubleMap.Entry<K1, K2, V> entry = segment.map.entry(k1, k2, hash);
+            if(entry != null && entry.v != null)
+                return entry.v;
+
+            v = function.apply(k1, k2);
+            if(v != null) {
+                if(entry != null) {
+                    entry.v = v;
+                } else {
+                    segment.map.add(k1, k2, v, hash);
+                    this.size.increment();
+                }
+            }
+            return v;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Atomically puts the value if both keys have no value yet, otherwise combines it with the current one
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value, must not be {@code null}
+     * @param function Combines the current and the given value, a {@code null} result removes the entry
+     * @return the new value or {@code null} if the entry was removed
+     * @see java.util.Map#merge(Object, Object, BiFunction)
+     */
+    public V merge(K1 k1, K2 k2, V v, BiFunction<? super V, ? super V, ? extends V> function) {
+        Objects.requireNonNull(v);
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            DoubleMap.Entry<K1, K2, V> entry = segment.map.entry(k1, k2, hash);
+            if(entry == null) {
+                segment.map.add(k1, k2, v, hash);
+                this.size.increment();
+                return v;
+            }
+
+            V merged = entry.v == null ? v : function.apply(entry.v, v);
+            if(merged == null) {
+                segment.map.removeEntry(k1, k2, hash);
+                this.size.decrement();
+            } else {
+                entry.v = merged;
+            }
+            return merged;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the entry of both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the removed value or {@code null}
+     */
+    public V remove(K1 k1, K2 k2) {
+        int hash = DoubleMap.hash(k1, k2);
+        Segment<K1, K2, V> segment = segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            DoubleMap.Entry<K1, K2, V> entry = segment.map.removeEntry(k1, k2, hash);
+            if(entry == null)
+                return null;
+
+            this.size.decrement();
+            return entry.v;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the amount of entries, only exact if no other thread changes the map meanwhile
+     */
+    public int size() {
+        return (int) Math.min(Math.max(this.size.sum(), 0), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return {@code true} if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all entries, segment by segment
+     */
+    public void clear() {
+        for(Segment<K1, K2, V> segment: this.segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                this.size.add(-segment.map.size());
+                segment.map.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Iterates weakly consistent over the entries, each segment is copied once the iterator reaches it.
+     * {@link DoubleMap.Entry#setValue(Object)} writes through to the map but is not atomic, use
+     * {@link #put(Object, Object, Object)} or {@link #merge(Object, Object, Object, BiFunction)} instead.
+     * @return {@link Iterator}
+     */
+    @Override
+    public Iterator<DoubleMap.Entry<K1, K2, V>> iterator() {
+        return new Iterator<>() {
+            private final List<DoubleMap.Entry<K1, K2, V>> buffer = new ArrayList<>();
+            private int segment = 0;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                while(this.index == this.buffer.size()) {
+                    if(this.segment == ConcurrentDoubleMap.this.segments.length)
+                        return false;
+
+                    this.buffer.clear();
+                    this.index = 0;
+                    Segment<K1, K2, V> segment = ConcurrentDoubleMap.this.segments[this.segment ++];
+                    long stamp = segment.lock.readLock();
+                    try {
+                        for(DoubleMap.Entry<K1, K2, V> entry: segment.map)
+                            this.buffer.add(entry);
+                    } finally {
+                        segment.lock.unlockRead(stamp);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public DoubleMap.Entry<K1, K2, V> next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+                return this.buffer.get(this.index ++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{ ");
+        for(DoubleMap.Entry<K1, K2, V> entry: this) {
+            if(sb.length() > 2)
+                sb.append(", ");
+            sb.append(entry);
+        }
+        return sb.length() == 2 ? "{}" : sb.append(" }").toString();
+    }
+}
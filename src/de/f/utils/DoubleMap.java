@@ -1,13 +1,49 @@
 package de.f.utils;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class DoubleMap<K1, K2, V> {
+/**
+ * A map from two keys to a value
+ *
+ * <p>The entries are stored in an open-addressing hash table on the combined hash of both keys, using Robin Hood
+ * hashing: an entry further away from its home slot takes the slot of an entry closer to its own, which keeps all
+ * probe sequences short. A removed entry is closed by shifting the following entries back, so the table never fills
+ * up with tombstones. Keys and values may be {@code null}.</p>
+ *
+ * <p>{@link #row(Object)} and {@link #column(Object)} list all entries of one key through secondary indexes, which
+ * link the entries of each row and each column. The indexes are built on their first use and maintained afterwards.
+ * A {@code DoubleMap} which never uses them skips building and updating them, but every {@link Entry} still carries
+ * its four link fields.</p>
+ *
+ * <p>{@link #spliterator()} splits the table by slot ranges without copying it, so {@link #parallelStream()},
+ * {@link #replaceAll(TriFunction)}, {@link #removeIf(TriPredicate)} and
+ * {@link #reduce(Object, BiFunction, BinaryOperator)} spread the entries over the common fork-join pool.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class DoubleMap<K1, K2, V> implements Iterable<DoubleMap.Entry<K1, K2, V>> {
     public static class Entry<K1, K2, V> {
         protected final K1 k1;
         protected final K2 k2;
         protected V v;
 
+        /** Links of the row and column index */
+        private Entry<K1, K2, V> rowPrev, rowNext, columnPrev, columnNext;
+
         private Entry(K1 k1, K2 k2, V v) {
             this.k1 = k1;
             this.k2 = k2;
@@ -27,46 +63,702 @@ public class DoubleMap<K1, K2, V> {
         public void setValue(V value) {
             this.v = value;
         }
+
+        @Override
+        public String toString() {
+            return this.k1 + " | " + this.k2 + " = " + this.v;
+        }
+    }
+
+    /**
+     * Accepts both keys and the value of an entry
+     */
+    @FunctionalInterface
+    public interface TriConsumer<K1, K2, V> {
+        void accept(K1 k1, K2 k2, V v);
+    }
+
+    /**
+     * Computes a result from both keys and the value of an entry
+     */
+    @FunctionalInterface
+    public interface TriFunction<K1, K2, V, R> {
+        R apply(K1 k1, K2 k2, V v);
+    }
+
+    /**
+     * Tests both keys and the value of an entry
+     */
+    @FunctionalInterface
+    public interface TriPredicate<K1, K2, V> {
+        boolean test(K1 k1, K2 k2, V v);
+    }
+
+    private static final int DEFAULT_CAPACITY = 1 << 4;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Entry<K1, K2, V>[] entries;
+    /** Hash of the entry in each slot, {@code 0} marks an empty slot */
+    private int[] hashes;
+    private int size;
+    /** Size at which the table grows, 3/4 of the capacity */
+    private int threshold;
+    private int modCount;
+
+    /** Entries by the first key, {@code null} until the index is used */
+    private HashMap<K1, Line<K1, K2, V>> rows;
+    /** Entries by the second key, {@code null} until the index is used */
+    private HashMap<K2, Line<K1, K2, V>> columns;
+
+    /**
+     * Generates a new empty {@code DoubleMap}
+     */
+    public DoubleMap() {
+        init(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Generates a new empty {@code DoubleMap} which can hold the given amount of entries without growing
+     * @param expectedSize Expected amount of entries
+     */
+    public DoubleMap(int expectedSize) {
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("Expected size must not be negative\n\tExpected size: " + expectedSize);
+
+        int capacity = DEFAULT_CAPACITY;
+        while(capacity < MAX_CAPACITY && capacity / 4 * 3 < expectedSize)
+            capacity <<= 1;
+        init(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void init(int capacity) {
+        this.entries = (Entry<K1, K2, V>[]) new Entry<?, ?, ?>[capacity];
+        this.hashes = new int[capacity];
+        this.threshold = capacity == MAX_CAPACITY ? MAX_CAPACITY : capacity / 4 * 3;
+    }
+
+    /**
+     * Combines and spreads the hashes of both keys
+     * @return the hash, never {@code 0}
+     */
+    static int hash(Object k1, Object k2) {
+        return mix(Objects.hashCode(k1) * 0x9E3779B9 + Objects.hashCode(k2));
+    }
+
+    /**
+     * Combines and spreads two {@code int} keys, equal to the hash of both keys boxed
+     * @return the hash, never {@code 0}
+     * @see IntIntIntMap
+     */
+    static int hash(int k1, int k2) {
+        return mix(k1 * 0x9E3779B9 + k2);
+    }
+
+    /**
+     * Combines and spreads two {@code long} keys, equal to the hash of both keys boxed
+     * @return the hash, never {@code 0}
+     * @see LongLongDoubleMap
+     */
+    static int hash(long k1, long k2) {
+        return mix(Long.hashCode(k1) * 0x9E3779B9 + Long.hashCode(k2));
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * @return how far the slot is away from the home slot of the hash
+     */
+    private int distance(int hash, int slot) {
+        return slot - hash & this.hashes.length - 1;
+    }
+
+    /**
+     * Gets the slot of the entry with the given keys. The probe is bounded by the capacity and reads each array only
+     * once, so an optimistic read racing with a writer ends instead of looping.
+     * @return the slot of the entry with the given keys or {@code -1}
+     * @see ConcurrentDoubleMap
+     */
+    private int find(Object k1, Object k2, int hash) {
+        int[] hashes = this.hashes;
+        Entry<K1, K2, V>[] entries = this.entries;
+        int mask = hashes.length - 1;
+        for(int slot = hash & mask, distance = 0; distance <= mask; slot = slot + 1 & mask, distance ++) {
+            int h = hashes[slot];
+            // a Robin Hood table places the entry before any entry closer to its home slot
+            if(h == 0 || (slot - h & mask) < distance)
+                return -1;
+
+            Entry<K1, K2, V> entry = entries[slot];
+            if(h == hash && entry != null && Objects.equals(entry.k1, k1) && Objects.equals(entry.k2, k2))
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * @param hash The hash of both keys
+     * @return the {@link Entry} of both keys or {@code null}
+     * @see #hash(Object, Object)
+     */
+    Entry<K1, K2, V> entry(Object k1, Object k2, int hash) {
+        int slot = find(k1, k2, hash);
+        return slot >= 0 ? this.entries[slot] : null;
+    }
+
+    /**
+     * Adds a new entry, there must be no entry of both keys yet
+     * @param hash The hash of both keys
+     * @return the new {@link Entry}
+     */
+    Entry<K1, K2, V> add(K1 k1, K2 k2, V v, int hash) {
+        if(this.size >= this.threshold)
+            resize();
+
+        Entry<K1, K2, V> entry = new Entry<>(k1, k2, v);
+        insert(hash, entry);
+        if(this.rows != null)
+            link(entry);
+        this.size ++;
+        this.modCount ++;
+        return entry;
+    }
+
+    /**
+     * Removes the entry of both keys
+     * @param hash The hash of both keys
+     * @return the removed {@link Entry} or {@code null}
+     */
+    Entry<K1, K2, V> removeEntry(Object k1, Object k2, int hash) {
+        int slot = find(k1, k2, hash);
+        if(slot < 0)
+            return null;
+
+        Entry<K1, K2, V> entry = this.entries[slot];
+        removeSlot(slot);
+        if(this.rows != null)
+            unlink(entry);
+        return entry;
+    }
+
+    private void insert(int hash, Entry<K1, K2, V> entry) {
+        int mask = this.hashes.length - 1;
+        for(int slot = hash & mask, distance = 0; ; slot = slot + 1 & mask, distance ++) {
+            int h = this.hashes[slot];
+            if(h == 0) {
+                this.hashes[slot] = hash;
+                this.entries[slot] = entry;
+                return;
+            }
+
+            int d = distance(h, slot);
+            if(d < distance) {
+                Entry<K1, K2, V> e = this.entries[slot];
+                this.hashes[slot] = hash;
+                this.entries[slot] = entry;
+                hash = h;
+                entry = e;
+                distance = d;
+            }
+        }
+    }
+
+    private void resize() {
+        if(this.hashes.length == MAX_CAPACITY)
+            throw new IllegalStateException("DoubleMap is full\n\tSize: " + this.size);
+
+        Entry<K1, K2, V>[] entries = this.entries;
+        int[] hashes = this.hashes;
+        init(hashes.length << 1);
+        for(int i = 0; i < hashes.length; i ++)
+            if(hashes[i] != 0)
+                insert(hashes[i], entries[i]);
     }
 
-    private static class Node<K1, K2, V> extends Entry<K1, K2, V> {
-        private Node(K1 k1, K2 k2, V v) {
-            super(k1, k2, v);
+    /**
+     * Associates the value with both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value
+     * @return the previous value or {@code null}
+     */
+    public V put(K1 k1, K2 k2, V v) {
+        int hash = hash(k1, k2);
+        Entry<K1, K2, V> entry = entry(k1, k2, hash);
+        if(entry != null) {
+            V old = entry.v;
+            entry.v = v;
+            return old;
         }
 
-        public Node<K1, K2, V> nextNode = null;
+        add(k1, k2, v, hash);
+        return null;
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the value of both keys or {@code null}
+     */
+    public V get(K1 k1, K2 k2) {
+        Entry<K1, K2, V> entry = entry(k1, k2, hash(k1, k2));
+        return entry != null ? entry.v : null;
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the {@link Entry} of both keys or {@code null}
+     */
+    public Entry<K1, K2, V> getEntry(K1 k1, K2 k2) {
+        return entry(k1, k2, hash(k1, k2));
+    }
 
-        public void put(K1 k1, K2 k2, V v) {
-            if(this.k1.equals(k1) && this.k2.equals(k2))
-                this.v = v;
-            else if(this.nextNode == null)
-                this.nextNode = new Node<>(k1, k2, v);
-            else
-                this.nextNode.put(k1, k2, v);
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return {@code true} if a value is associated with both keys, even if it is {@code null}
+     */
+    public boolean containsKey(K1 k1, K2 k2) {
+        return find(k1, k2, hash(k1, k2)) >= 0;
+    }
+
+    /**
+     * Removes the entry of both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the removed value or {@code null}
+     */
+    public V remove(K1 k1, K2 k2) {
+        Entry<K1, K2, V> entry = removeEntry(k1, k2, hash(k1, k2));
+        return entry != null ? entry.v : null;
+    }
+
+    /**
+     * Empties the slot and shifts the following entries back until one is in its home slot
+     */
+    private void removeSlot(int slot) {
+        int mask = this.hashes.length - 1;
+        int next = slot + 1 & mask;
+        while(this.hashes[next] != 0 && distance(this.hashes[next], next) > 0) {
+            this.hashes[slot] = this.hashes[next];
+            this.entries[slot] = this.entries[next];
+            slot = next;
+            next = next + 1 & mask;
         }
+        this.hashes[slot] = 0;
+        this.entries[slot] = null;
+        this.size --;
+        this.modCount ++;
+    }
+
+    /**
+     * @return the amount of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the {@code DoubleMap} has no entries
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all entries but keeps the capacity
+     */
+    public void clear() {
+        Arrays.fill(this.entries, null);
+        Arrays.fill(this.hashes, 0);
+        this.size = 0;
+        this.modCount ++;
+        this.rows = null;
+        this.columns = null;
+    }
+
+    // ---- row and column index ----
+
+    /**
+     * First entry and size of a row or a column
+     */
+    private static final class Line<K1, K2, V> {
+        private Entry<K1, K2, V> first;
+        private int size;
+    }
+
+    /**
+     * Builds the row and column index if it is not built yet
+     */
+    private void index() {
+        if(this.rows != null)
+            return;
 
-        public V get(K1 k1, K2 k2) {
-            if(this.k1.equals(k1) && this.k2.equals(k2))
-                return this.v;
-            else if(this.nextNode == null)
+        this.rows = new HashMap<>();
+        this.columns = new HashMap<>();
+        for(Entry<K1, K2, V> entry: this.entries)
+            if(entry != null)
+                link(entry);
+    }
+
+    private void link(Entry<K1, K2, V> entry) {
+        Line<K1, K2, V> row = this.rows.computeIfAbsent(entry.k1, k -> new Line<>());
+        entry.rowNext = row.first;
+        if(row.first != null)
+            row.first.rowPrev = entry;
+        row.first = entry;
+        row.size ++;
+
+        Line<K1, K2, V> column = this.columns.computeIfAbsent(entry.k2, k -> new Line<>());
+        entry.columnNext = column.first;
+        if(column.first != null)
+            column.first.columnPrev = entry;
+        column.first = entry;
+        column.size ++;
+    }
+
+    private void unlink(Entry<K1, K2, V> entry) {
+        Line<K1, K2, V> row = this.rows.get(entry.k1);
+        if(entry.rowPrev != null)
+            entry.rowPrev.rowNext = entry.rowNext;
+        else
+            row.first = entry.rowNext;
+        if(entry.rowNext != null)
+            entry.rowNext.rowPrev = entry.rowPrev;
+        if(-- row.size == 0)
+            this.rows.remove(entry.k1);
+
+        Line<K1, K2, V> column = this.columns.get(entry.k2);
+        if(entry.columnPrev != null)
+            entry.columnPrev.columnNext = entry.columnNext;
+        else
+            column.first = entry.columnNext;
+        if(entry.columnNext != null)
+            entry.columnNext.columnPrev = entry.columnPrev;
+        if(-- column.size == 0)
+            this.columns.remove(entry.k2);
+
+        entry.rowPrev = entry.rowNext = entry.columnPrev = entry.columnNext = null;
+    }
+
+    /**
+     * Gets a live view of all entries with the given first key, iterating it takes time proportional to the size
+     * of the row instead of the size of the {@code DoubleMap}
+     * @param k1 First key
+     * @return the entries of the row
+     */
+    public Iterable<Entry<K1, K2, V>> row(K1 k1) {
+        return () -> {
+            index();
+            Line<K1, K2, V> row = this.rows.get(k1);
+            return new LineIterator(row != null ? row.first : null, true);
+        };
+    }
+
+    /**
+     * Gets a live view of all entries with the given second key, iterating it takes time proportional to the size
+     * of the column instead of the size of the {@code DoubleMap}
+     * @param k2 Second key
+     * @return the entries of the column
+     */
+    public Iterable<Entry<K1, K2, V>> column(K2 k2) {
+        return () -> {
+            index();
+            Line<K1, K2, V> column = this.columns.get(k2);
+            return new LineIterator(column != null ? column.first : null, false);
+        };
+    }
+
+    /**
+     * @param k1 First key
+     * @return the amount of entries with the given first key
+     */
+    public int rowSize(K1 k1) {
+        index();
+        Line<K1, K2, V> row = this.rows.get(k1);
+        return row != null ? row.size : 0;
+    }
+
+    /**
+     * @param k2 Second key
+     * @return the amount of entries with the given second key
+     */
+    public int columnSize(K2 k2) {
+        index();
+        Line<K1, K2, V> column = this.columns.get(k2);
+        return column != null ? column.size : 0;
+    }
+
+    /**
+     * Removes all entries with the given first key
+     * @param k1 First key
+     * @return the amount of removed entries
+     */
+    public int removeRow(K1 k1) {
+        index();
+        Line<K1, K2, V> row = this.rows.get(k1);
+        if(row == null)
+            return 0;
+
+        int removed = row.size;
+        for(Entry<K1, K2, V> entry = row.first; entry != null; ) {
+            Entry<K1, K2, V> next = entry.rowNext;
+            removeEntry(entry.k1, entry.k2, hash(entry.k1, entry.k2));
+            entry = next;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all entries with the given second key
+     * @param k2 Second key
+     * @return the amount of removed entries
+     */
+    public int removeColumn(K2 k2) {
+        index();
+        Line<K1, K2, V> column = this.columns.get(k2);
+        if(column == null)
+            return 0;
+
+        int removed = column.size;
+        for(Entry<K1, K2, V> entry = column.first; entry != null; ) {
+            Entry<K1, K2, V> next = entry.columnNext;
+            removeEntry(entry.k1, entry.k2, hash(entry.k1, entry.k2));
+            entry = next;
+        }
+        return removed;
+    }
+
+    private final class LineIterator implements Iterator<Entry<K1, K2, V>> {
+        private final int expectedModCount = DoubleMap.this.modCount;
+        private final boolean row;
+        private Entry<K1, K2, V> next;
+
+        private LineIterator(Entry<K1, K2, V> first, boolean row) {
+            this.next = first;
+            this.row = row;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public Entry<K1, K2, V> next() {
+            if(DoubleMap.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+            if(this.next == null)
+                throw new NoSuchElementException();
+
+            Entry<K1, K2, V> entry = this.next;
+            this.next = this.row ? entry.rowNext : entry.columnNext;
+            return entry;
+        }
+    }
+
+    /**
+     * Iterates over the entries in table order without copying them, {@link Entry#setValue(Object)} writes through
+     * to the {@code DoubleMap}
+     * @return {@link Iterator}
+     */
+    @Override
+    public Iterator<Entry<K1, K2, V>> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = DoubleMap.this.modCount;
+            private int slot = nextSlot(0);
+
+            private int nextSlot(int slot) {
+                while(slot < DoubleMap.this.hashes.length && DoubleMap.this.hashes[slot] == 0)
+                    slot ++;
+                return slot;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.slot < DoubleMap.this.hashes.length;
+            }
+
+            @Override
+            public Entry<K1, K2, V> next() {
+                if(DoubleMap.this.modCount != this.expectedModCount)
+                    throw new ConcurrentModificationException();
+                if(!hasNext())
+                    throw new NoSuchElementException();
+
+                Entry<K1, K2, V> entry = DoubleMap.this.entries[this.slot];
+                this.slot = nextSlot(this.slot + 1);
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * Calls the action for every entry in table order without allocating
+     * @param action Accepts both keys and the value
+     * @throws ConcurrentModificationException If the action adds or removes entries
+     */
+    public void forEach(TriConsumer<? super K1, ? super K2, ? super V> action) throws ConcurrentModificationException {
+        int expectedModCount = this.modCount;
+        Entry<K1, K2, V>[] entries = this.entries;
+        int[] hashes = this.hashes;
+        for(int slot = 0; slot < hashes.length; slot ++) {
+            if(hashes[slot] == 0)
+                continue;
+
+            Entry<K1, K2, V> entry = entries[slot];
+            action.accept(entry.k1, entry.k2, entry.v);
+            if(this.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Splits the entries by slot ranges, the spliterator is fail-fast and only sized before it was split
+     * @return {@link Spliterator}
+     */
+    @Override
+    public Spliterator<Entry<K1, K2, V>> spliterator() {
+        return new EntrySpliterator(0, this.hashes.length, this.size, this.modCount, true);
+    }
+
+    /**
+     * @return a sequential {@link Stream} of the entries
+     */
+    public Stream<Entry<K1, K2, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return a parallel {@link Stream} of the entries
+     */
+    public Stream<Entry<K1, K2, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Replaces every value with the result of the function, the entries are processed in parallel
+     * @param function Computes the new value from both keys and the old value, must not change this map
+     */
+    public void replaceAll(TriFunction<? super K1, ? super K2, ? super V, ? extends V> function) {
+        parallelStream().forEach(entry -> entry.v = function.apply(entry.k1, entry.k2, entry.v));
+    }
+
+    /**
+     * Removes all entries matching the predicate. The predicate is tested in parallel, the matching entries are
+     * removed afterwards.
+     * @param predicate Tests both keys and the value, must not change this map
+     * @return the amount of removed entries
+     */
+    public int removeIf(TriPredicate<? super K1, ? super K2, ? super V> predicate) {
+        List<Entry<K1, K2, V>> removed = parallelStream()
+                .filter(entry -> predicate.test(entry.k1, entry.k2, entry.v))
+                .toList();
+        for(Entry<K1, K2, V> entry: removed)
+            removeEntry(entry.k1, entry.k2, hash(entry.k1, entry.k2));
+        return removed.size();
+    }
+
+    /**
+     * Reduces the entries in parallel
+     * @param identity Identity of the combiner
+     * @param accumulator Adds an entry to a partial result
+     * @param combiner Combines two partial results
+     * @return the result
+     * @see Stream#reduce(Object, BiFunction, BinaryOperator)
+     */
+    public <U> U reduce(U identity, BiFunction<U, ? super Entry<K1, K2, V>, U> accumulator, BinaryOperator<U> combiner) {
+        return parallelStream().reduce(identity, accumulator, combiner);
+    }
+
+    private final class EntrySpliterator implements Spliterator<Entry<K1, K2, V>> {
+        private int slot;
+        private final int fence;
+        private long estimate;
+        private final int expectedModCount;
+        /** {@code true} until the first split, the estimate is exact */
+        private boolean sized;
+
+        private EntrySpliterator(int slot, int fence, long estimate, int expectedModCount, boolean sized) {
+            this.slot = slot;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.expectedModCount = expectedModCount;
+            this.sized = sized;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K1, K2, V>> action) {
+            int[] hashes = DoubleMap.this.hashes;
+            while(this.slot < this.fence) {
+                int slot = this.slot ++;
+                if(hashes[slot] == 0)
+                    continue;
+
+                if(this.sized)
+                    this.estimate --;
+                action.accept(DoubleMap.this.entries[slot]);
+                if(DoubleMap.this.modCount != this.expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K1, K2, V>> action) {
+            Entry<K1, K2, V>[] entries = DoubleMap.this.entries;
+            int[] hashes = DoubleMap.this.hashes;
+            for(int slot = this.slot; slot < this.fence; slot ++)
+                if(hashes[slot] != 0)
+                    action.accept(entries[slot]);
+            this.slot = this.fence;
+            this.estimate = 0;
+            if(DoubleMap.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public Spliterator<Entry<K1, K2, V>> trySplit() {
+            int mid = this.slot + this.fence >>> 1;
+            if(mid <= this.slot)
                 return null;
-            else
-                return this.nextNode.get(k1, k2);
+
+            this.estimate >>>= 1;
+            this.sized = false;
+            EntrySpliterator prefix = new EntrySpliterator(this.slot, mid, this.estimate, this.expectedModCount, false);
+            this.slot = mid;
+            return prefix;
         }
 
-        public void entryList(List<Entry<K1, K2, V>> list) {
-            list.add(this);
-            if(this.nextNode != null)
-                this.nextNode.entryList(list);
+        @Override
+        public long estimateSize() {
+            return this.estimate;
         }
 
-        public void remove(K1 k1, K2 k2) {
-            if(this.nextNode != null && this.nextNode.k1.equals(k1) && this.nextNode.k2.equals(k2))
-                this.nextNode = this.nextNode.nextNode;
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL | (this.sized ? Spliterator.SIZED : 0);
         }
     }
 
-    private Node<K1, K2, V> firstNode = null;
+    @Override
+    public String toString() {
+        if(this.size == 0)
+            return "{}";
 
-    // TODO: ☺☺☻☺☺•
-}
\ No newline at end of file
+        StringBuilder sb = new StringBuilder("{ ");
+        for(Entry<K1, K2, V> entry: this) {
+            if(sb.length() > 2)
+                sb.append(", ");
+            sb.append(entry);
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,757 @@
+package de.f.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * A thread-safe, bounded cache with two keys backed by a {@link DoubleMap}
+ *
+ * <p>Once the total weight exceeds the maximum, entries are evicted either in least recently used order or by
+ * W-TinyLFU: new entries enter a small LRU window and only replace an entry of the main space if a frequency sketch
+ * has seen them more often, so a scan of one-time keys can not flush the frequently used ones. Entries may expire a
+ * fixed time after they were written or last read. Every operation takes constant time: the orders are kept in
+ * intrusive linked lists and expired entries are removed when they are read or reach the head of their list.</p>
+ *
+ * <p>{@link #get(Object, Object, BiFunction)} loads a missing value at most once per key pair at a time, concurrent
+ * callers for the same keys wait for that load instead of starting their own. The loader runs without holding the
+ * lock of the cache.</p>
+ *
+ * <pre>{@code
+ * DoubleMapCache<String, String, User> users = new DoubleMapCache.Builder<String, String, User>()
+ *         .maximumSize(10_000)
+ *         .expireAfterWrite(10, TimeUnit.MINUTES)
+ *         .loader(database::loadUser)
+ *         .build();
+ * User user = users.get(tenant, name);
+ * }</pre>
+ * @see DoubleMap
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class DoubleMapCache<K1, K2, V> {
+    /**
+     * The eviction policy of a {@link DoubleMapCache}
+     */
+    public enum Policy {
+        /** Evicts the least recently used entry */
+        LRU,
+        /** Admits new entries through a small LRU window and a frequency sketch into a segmented LRU */
+        W_TINY_LFU
+    }
+
+    /**
+     * Computes the weight of an entry
+     */
+    @FunctionalInterface
+    public interface Weigher<K1, K2, V> {
+        /**
+         * @return the weight of the entry, must not be negative
+         */
+        int weigh(K1 k1, K2 k2, V v);
+    }
+
+    /**
+     * Configures a {@link DoubleMapCache}
+     */
+    public static final class Builder<K1, K2, V> {
+        private long maximumWeight = -1;
+        private Weigher<? super K1, ? super K2, ? super V> weigher;
+        private Policy policy = Policy.W_TINY_LFU;
+        private long expireAfterWrite;
+        private long expireAfterAccess;
+        private BiFunction<? super K1, ? super K2, ? extends V> loader;
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * Limits the amount of entries
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> maximumSize(long maximumSize) {
+            if(maximumSize < 0)
+                throw new IllegalArgumentException("Maximum size must not be negative\n\tMaximum size: " + maximumSize);
+            this.maximumWeight = maximumSize;
+            this.weigher = null;
+            return this;
+        }
+
+        /**
+         * Limits the total weight of all entries
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> maximumWeight(long maximumWeight, Weigher<? super K1, ? super K2, ? super V> weigher) {
+            if(maximumWeight < 0)
+                throw new IllegalArgumentException("Maximum weight must not be negative\n\tMaximum weight: " + maximumWeight);
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> policy(Policy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * Expires entries the given time after they were put or loaded
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> expireAfterWrite(long duration, TimeUnit unit) {
+            this.expireAfterWrite = positive(unit.toNanos(duration));
+            return this;
+        }
+
+        /**
+         * Expires entries the given time after they were last read or written
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> expireAfterAccess(long duration, TimeUnit unit) {
+            this.expireAfterAccess = positive(unit.toNanos(duration));
+            return this;
+        }
+
+        /**
+         * Sets the function loading missing values in {@link DoubleMapCache#get(Object, Object)}
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> loader(BiFunction<? super K1, ? super K2, ? extends V> loader) {
+            this.loader = loader;
+            return this;
+        }
+
+        /**
+         * Sets the source of the time in nanoseconds, {@link System#nanoTime()} by default
+         * @return {@code this}
+         */
+        public Builder<K1, K2, V> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        private static long positive(long nanos) {
+            if(nanos <= 0)
+                throw new IllegalArgumentException("Duration must be positive\n\tDuration: " + nanos + "ns");
+            return nanos;
+        }
+
+        /**
+         * @return a new empty {@link DoubleMapCache}
+         */
+        public DoubleMapCache<K1, K2, V> build() {
+            if(this.maximumWeight < 0)
+                throw new IllegalStateException("Maximum size or weight must be set");
+            return new DoubleMapCache<>(this);
+        }
+    }
+
+    /**
+     * A snapshot of the counters of a {@link DoubleMapCache}
+     */
+    public static final class Stats {
+        private final long hits, misses, loads, loadFailures, evictions;
+
+        private Stats(long hits, long misses, long loads, long loadFailures, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.loadFailures = loadFailures;
+            this.evictions = evictions;
+        }
+
+        public long hits() {
+            return this.hits;
+        }
+
+        public long misses() {
+            return this.misses;
+        }
+
+        public long loads() {
+            return this.loads;
+        }
+
+        public long loadFailures() {
+            return this.loadFailures;
+        }
+
+        /**
+         * @return the amount of entries removed because of the maximum size or weight, expired ones excluded
+         */
+        public long evictions() {
+            return this.evictions;
+        }
+
+        /**
+         * @return the share of hits of all reads or {@code 1} if there was no read yet
+         */
+        public double hitRate() {
+            long requests = this.hits + this.misses;
+            return requests == 0 ? 1 : (double) this.hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + this.hits + ", misses=" + this.misses + ", loads=" + this.loads + ", loadFailures=" + this.loadFailures + ", evictions=" + this.evictions + "}";
+        }
+    }
+
+    // ---- entries and queues ----
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private static final class Node<K1, K2, V> {
+        private final K1 k1;
+        private final K2 k2;
+        private final int hash;
+        private V v;
+        private int weight;
+        private long writeTime, accessTime;
+        private byte queue;
+        private Node<K1, K2, V> accessPrev, accessNext, writePrev, writeNext;
+
+        private Node(K1 k1, K2 k2, int hash) {
+            this.k1 = k1;
+            this.k2 = k2;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * A list in access order, the head is the least recently used entry
+     */
+    private static final class AccessQueue<K1, K2, V> {
+        private Node<K1, K2, V> head, tail;
+        private long weight;
+
+        private void addLast(Node<K1, K2, V> node) {
+            node.accessPrev = this.tail;
+            node.accessNext = null;
+            if(this.tail == null)
+                this.head = node;
+            else
+                this.tail.accessNext = node;
+            this.tail = node;
+            this.weight += node.weight;
+        }
+
+        private void remove(Node<K1, K2, V> node) {
+            if(node.accessPrev == null)
+                this.head = node.accessNext;
+            else
+                node.accessPrev.accessNext = node.accessNext;
+            if(node.accessNext == null)
+                this.tail = node.accessPrev;
+            else
+                node.accessNext.accessPrev = node.accessPrev;
+            node.accessPrev = node.accessNext = null;
+            this.weight -= node.weight;
+        }
+
+        private void moveToEnd(Node<K1, K2, V> node) {
+            if(node != this.tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often a key pair was used, halved periodically so old
+     * popularity fades
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(long maximum) {
+            int size = Integer.highestOneBit((int) Math.max(Math.min(maximum, 1 << 22), 8) * 2 - 1);
+            this.table = new long[size];
+            this.sampleSize = size * 10;
+        }
+
+        private int index(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & this.table.length - 1;
+        }
+
+        private int frequency(int hash) {
+            int start = (hash & 3) << 2;
+            int frequency = 15;
+            for(int i = 0; i < 4; i ++) {
+                int count = (int) (this.table[index(hash, i)] >>> (start + i << 2) & 0xF);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        private void increment(int hash) {
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for(int i = 0; i < 4; i ++) {
+                int index = index(hash, i);
+                int offset = start + i << 2;
+                if((this.table[index] >>> offset & 0xF) != 0xF) {
+                    this.table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+
+            if(added && ++ this.additions == this.sampleSize) {
+                for(int i = 0; i < this.table.length; i ++)
+                    this.table[i] = this.table[i] >>> 1 & 0x7777777777777777L;
+                this.additions >>>= 1;
+            }
+        }
+    }
+
+    // ---- cache ----
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final DoubleMap<K1, K2, Node<K1, K2, V>> data = new DoubleMap<>();
+    private final DoubleMap<K1, K2, CompletableFuture<V>> loading = new DoubleMap<>();
+
+    private final long maximumWeight;
+    private final Weigher<? super K1, ? super K2, ? super V> weigher;
+    private final Policy policy;
+    private final long expireAfterWrite;
+    private final long expireAfterAccess;
+    private final BiFunction<? super K1, ? super K2, ? extends V> loader;
+    private final LongSupplier ticker;
+
+    /** The only queue of {@link Policy#LRU}, the window of {@link Policy#W_TINY_LFU} */
+    private final AccessQueue<K1, K2, V> window = new AccessQueue<>();
+    private final AccessQueue<K1, K2, V> probation = new AccessQueue<>();
+    private final AccessQueue<K1, K2, V> protect = new AccessQueue<>();
+    private final AccessQueue<K1, K2, V>[] queues;
+    private final FrequencySketch sketch;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    /** Entries in write order, only kept if entries expire after write */
+    private Node<K1, K2, V> writeHead, writeTail;
+    private long weight;
+
+    private long hits, misses, loads, loadFailures, evictions;
+
+    @SuppressWarnings("unchecked")
+    private DoubleMapCache(Builder<K1, K2, V> builder) {
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.policy = builder.policy;
+        this.expireAfterWrite = builder.expireAfterWrite;
+        this.expireAfterAccess = builder.expireAfterAccess;
+        this.loader = builder.loader;
+        this.ticker = builder.ticker;
+        this.queues = (AccessQueue<K1, K2, V>[]) new AccessQueue<?, ?, ?>[] {this.window, this.probation, this.protect};
+
+        if(this.policy == Policy.W_TINY_LFU) {
+            this.sketch = new FrequencySketch(this.maximumWeight);
+            this.windowMaximum = Math.max(this.maximumWeight / 100, 1);
+            this.protectedMaximum = (this.maximumWeight - this.windowMaximum) / 5 * 4;
+        } else {
+            this.sketch = null;
+            this.windowMaximum = this.maximumWeight;
+            this.protectedMaximum = 0;
+        }
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the cached value or {@code null}, nothing is loaded
+     */
+    public V getIfPresent(K1 k1, K2 k2) {
+        this.lock.lock();
+        try {
+            Node<K1, K2, V> node = lookup(k1, k2, this.ticker.getAsLong());
+            if(node == null) {
+                this.misses ++;
+                return null;
+            }
+            this.hits ++;
+            return node.v;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the cached value or loads it with the loader of the {@link Builder}
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the cached or loaded value, {@code null} if the loader returned {@code null}
+     * @throws IllegalStateException If the cache has no loader
+     */
+    public V get(K1 k1, K2 k2) throws IllegalStateException {
+        if(this.loader == null)
+            throw new IllegalStateException("Cache has no loader");
+        return get(k1, k2, this.loader);
+    }
+
+    /**
+     * Gets the cached value or loads it. Only one thread loads a key pair at a time, the others wait for its result.
+     * An exception of the loader is thrown to all waiting threads and nothing is cached.
+     * @param k1 First key
+     * @param k2 Second key
+     * @param loader Loads the value, a {@code null} result is not cached
+     * @return the cached or loaded value
+     */
+    public V get(K1 k1, K2 k2, BiFunction<? super K1, ? super K2, ? extends V> loader) {
+        CompletableFuture<V> future;
+        boolean owner = false;
+
+        this.lock.lock();
+        try {
+            Node<K1, K2, V> node = lookup(k1, k2, this.ticker.getAsLong());
+            if(node != null) {
+                this.hits ++;
+                return node.v;
+            }
+
+            this.misses ++;
+            future = this.loading.get(k1, k2);
+            if(future == null) {
+                future = new CompletableFuture<>();
+                this.loading.put(k1, k2, future);
+                owner = true;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+
+        if(!owner)
+            return join(future);
+
+        V v;
+        try {
+            v = loader.apply(k1, k2);
+        } catch(RuntimeException | Error e) {
+            this.lock.lock();
+            try {
+                this.loading.remove(k1, k2);
+                this.loadFailures ++;
+            } finally {
+                this.lock.unlock();
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        this.lock.lock();
+        try {
+            this.loading.remove(k1, k2);
+            this.loads ++;
+            if(v != null)
+                write(k1, k2, v, this.ticker.getAsLong());
+        } finally {
+            this.lock.unlock();
+        }
+        future.complete(v);
+        return v;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch(CompletionException e) {
+            if(e.getCause() instanceof RuntimeException r)
+                throw r;
+            if(e.getCause() instanceof Error r)
+                throw r;
+            throw e;
+        }
+    }
+
+    /**
+     * Associates the value with both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value, must not be {@code null}
+     */
+    public void put(K1 k1, K2 k2, V v) {
+        if(v == null)
+            throw new NullPointerException("Value must not be null");
+
+        this.lock.lock();
+        try {
+            write(k1, k2, v, this.ticker.getAsLong());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entry of both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the removed value or {@code null}
+     */
+    public V remove(K1 k1, K2 k2) {
+        this.lock.lock();
+        try {
+            Node<K1, K2, V> node = this.data.get(k1, k2);
+            if(node == null)
+                return null;
+            unlink(node);
+            return node.v;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all entries, the counters are kept
+     */
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.data.clear();
+            for(AccessQueue<K1, K2, V> queue: this.queues) {
+                queue.head = queue.tail = null;
+                queue.weight = 0;
+            }
+            this.writeHead = this.writeTail = null;
+            this.weight = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the expired entries at the heads of the lists, this is also done on every write
+     */
+    public void cleanUp() {
+        this.lock.lock();
+        try {
+            expire(this.ticker.getAsLong());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the amount of cached entries, expired ones which were not removed yet included
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.data.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the total weight of all cached entries
+     */
+    public long weight() {
+        this.lock.lock();
+        try {
+            return this.weight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return a snapshot of the counters
+     */
+    public Stats stats() {
+        this.lock.lock();
+        try {
+            return new Stats(this.hits, this.misses, this.loads, this.loadFailures, this.evictions);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        this.lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder("{ ");
+            for(DoubleMap.Entry<K1, K2, Node<K1, K2, V>> entry: this.data) {
+                if(sb.length() > 2)
+                    sb.append(", ");
+                sb.append(entry.getKey1()).append(" | ").append(entry.getKey2()).append(" = ").append(entry.getValue().v);
+            }
+            return sb.length() == 2 ? "{}" : sb.append(" }").toString();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // ---- policy, all called with the lock held ----
+
+    private AccessQueue<K1, K2, V> queue(Node<K1, K2, V> node) {
+        return switch(node.queue) {
+            case PROBATION -> this.probation;
+            case PROTECTED -> this.protect;
+            default -> this.window;
+        };
+    }
+
+    private boolean isExpired(Node<K1, K2, V> node, long now) {
+        return this.expireAfterWrite > 0 && now - node.writeTime >= this.expireAfterWrite
+                || this.expireAfterAccess > 0 && now - node.accessTime >= this.expireAfterAccess;
+    }
+
+    /**
+     * @return the live node of both keys, which is marked as accessed, or {@code null}
+     */
+    private Node<K1, K2, V> lookup(K1 k1, K2 k2, long now) {
+        Node<K1, K2, V> node = this.data.get(k1, k2);
+        if(this.sketch != null)
+            this.sketch.increment(node != null ? node.hash : DoubleMap.hash(k1, k2));
+        if(node == null)
+            return null;
+        if(isExpired(node, now)) {
+            unlink(node);
+            return null;
+        }
+
+        node.accessTime = now;
+        onAccess(node);
+        return node;
+    }
+
+    private void write(K1 k1, K2 k2, V v, long now) {
+        int weight = this.weigher == null ? 1 : this.weigher.weigh(k1, k2, v);
+        if(weight < 0)
+            throw new IllegalArgumentException("Weight must not be negative\n\tWeight: " + weight);
+
+        Node<K1, K2, V> node = this.data.get(k1, k2);
+        if(node == null) {
+            node = new Node<>(k1, k2, DoubleMap.hash(k1, k2));
+            node.v = v;
+            node.weight = weight;
+            node.queue = WINDOW;
+            this.data.put(k1, k2, node);
+            this.window.addLast(node);
+            this.weight += weight;
+            if(this.sketch != null)
+                this.sketch.increment(node.hash);
+        } else {
+            AccessQueue<K1, K2, V> queue = queue(node);
+            queue.weight += weight - node.weight;
+            this.weight += weight - node.weight;
+            node.v = v;
+            node.weight = weight;
+            onAccess(node);
+            if(this.expireAfterWrite > 0)
+                unlinkWrite(node);
+        }
+
+        node.writeTime = node.accessTime = now;
+        if(this.expireAfterWrite > 0) {
+            node.writePrev = this.writeTail;
+            if(this.writeTail == null)
+                this.writeHead = node;
+            else
+                this.writeTail.writeNext = node;
+            this.writeTail = node;
+        }
+
+        expire(now);
+        evict();
+    }
+
+    private void onAccess(Node<K1, K2, V> node) {
+        switch(node.queue) {
+            case PROBATION -> {
+                this.probation.remove(node);
+                node.queue = PROTECTED;
+                this.protect.addLast(node);
+                while(this.protect.weight > this.protectedMaximum && this.protect.head != node) {
+                    Node<K1, K2, V> demoted = this.protect.head;
+                    this.protect.remove(demoted);
+                    demoted.queue = PROBATION;
+                    this.probation.addLast(demoted);
+                }
+            }
+            case PROTECTED -> this.protect.moveToEnd(node);
+            default -> this.window.moveToEnd(node);
+        }
+    }
+
+    private void evict() {
+        if(this.policy == Policy.LRU) {
+            while(this.weight > this.maximumWeight && this.window.head != null) {
+                this.evictions ++;
+                unlink(this.window.head);
+            }
+            return;
+        }
+
+        // the window overflows into probation, where its entries are the candidates for admission
+        Node<K1, K2, V> candidates = null;
+        while(this.window.weight > this.windowMaximum && this.window.head != null) {
+            Node<K1, K2, V> node = this.window.head;
+            this.window.remove(node);
+            node.queue = PROBATION;
+            this.probation.addLast(node);
+            if(candidates == null)
+                candidates = node;
+        }
+
+        while(this.weight > this.maximumWeight) {
+            Node<K1, K2, V> victim = this.probation.head;
+            if(victim == null) {
+                victim = this.protect.head != null ? this.protect.head : this.window.head;
+                if(victim == null)
+                    break;
+            } else if(candidates != null && candidates != victim && this.sketch.frequency(candidates.hash) <= this.sketch.frequency(victim.hash)) {
+                // the candidate is not used more often than the victim, so it is not admitted
+                victim = candidates;
+            }
+
+            if(victim == candidates)
+                candidates = victim.accessNext;
+            this.evictions ++;
+            unlink(victim);
+        }
+    }
+
+    private void expire(long now) {
+        if(this.expireAfterWrite > 0)
+            while(this.writeHead != null && isExpired(this.writeHead, now))
+                unlink(this.writeHead);
+        if(this.expireAfterAccess > 0)
+            for(AccessQueue<K1, K2, V> queue: this.queues)
+                while(queue.head != null && isExpired(queue.head, now))
+                    unlink(queue.head);
+    }
+
+    private void unlinkWrite(Node<K1, K2, V> node) {
+        if(node.writePrev == null)
+            this.writeHead = node.writeNext;
+        else
+            node.writePrev.writeNext = node.writeNext;
+        if(node.writeNext == null)
+            this.writeTail = node.writePrev;
+        else
+            node.writeNext.writePrev = node.writePrev;
+        node.writePrev = node.writeNext = null;
+    }
+
+    private void unlink(Node<K1, K2, V> node) {
+        this.data.remove(node.k1, node.k2);
+        queue(node).remove(node);
+        if(this.expireAfterWrite > 0)
+            unlinkWrite(node);
+        this.weight -= node.weight;
+    }
+}
@@ -0,0 +1,74 @@
+package de.f.utils;
+
+/**
+ * A pair of an {@code int} and a {@code double} without boxing
+ *
+ * @see DoubleValue
+ * @see IntDoublePairList
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class IntDoublePair {
+    private int a;
+    private double b;
+
+    public IntDoublePair() {
+
+    }
+    public IntDoublePair(int a, double b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    public int getA() {
+        return this.a;
+    }
+    public void setA(int a) {
+        this.a = a;
+    }
+    public double getB() {
+        return this.b;
+    }
+    public void setB(double b) {
+        this.b = b;
+    }
+
+    /**
+     * Sets both values
+     * @return {@code this}
+     */
+    public IntDoublePair set(int a, double b) {
+        this.a = a;
+        this.b = b;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IntDoublePair p && this.a == p.a && Double.compare(this.b, p.b) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(this.a) * 31 + Double.hashCode(this.b);
+    }
+
+    /**
+     * String Format: {@code { a | b }}
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        return "{ " + this.a + " | " + this.b + " }";
+    }
+
+    /**
+     * @return {@link IntDoublePair}
+     */
+    @Override
+    public IntDoublePair clone() {
+        return new IntDoublePair(this.a, this.b);
+    }
+}
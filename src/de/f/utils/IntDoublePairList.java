@@ -0,0 +1,487 @@
+package de.f.utils;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable list of {@link IntDoublePair}s stored as two parallel primitive arrays
+ *
+ * <p>Each pair costs 12 bytes instead of a {@link DoubleValue} with two boxed values, and a scan over
+ * one component only reads that component's array. Pairs are read through {@link #getA(int)} and
+ * {@link #getB(int)} or a {@link Cursor}, so neither reading nor iterating allocates.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class IntDoublePairList {
+    private int[] as;
+    private double[] bs;
+    private int size;
+    private int modCount;
+
+    private static final int DEFAULT_SIZE = 1 << 4;
+    /** Ranges up to this length are sorted by insertion sort */
+    private static final int INSERTION_SORT_THRESHOLD = 24;
+
+    /**
+     * Generates a new {@code IntDoublePairList} with the starting capacity of {@value DEFAULT_SIZE}
+     */
+    public IntDoublePairList() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Generates a new {@code IntDoublePairList} with the given starting capacity
+     * @param startCapacity Starting capacity of the {@code IntDoublePairList}
+     */
+    public IntDoublePairList(int startCapacity) {
+        if(startCapacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative\n\tCapacity: " + startCapacity);
+        this.as = new int[startCapacity];
+        this.bs = new double[startCapacity];
+    }
+
+    /**
+     * @return the amount of pairs in the {@code IntDoublePairList}
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the {@code IntDoublePairList} is empty, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private void checkIndex(int index) {
+        if(index >= this.size || index < 0)
+            throw new IndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Size: " + this.size);
+    }
+
+    /**
+     * Grows the arrays so they can hold the given amount of pairs
+     * @param capacity Minimum capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity <= this.as.length)
+            return;
+
+        int newCapacity = (int) Math.min(Math.max((long) this.as.length << 1, capacity), Integer.MAX_VALUE - 8);
+        if(newCapacity < capacity)
+            throw new OutOfMemoryError("Capacity is too large\n\tCapacity: " + capacity);
+        this.as = Arrays.copyOf(this.as, newCapacity);
+        this.bs = Arrays.copyOf(this.bs, newCapacity);
+    }
+
+    /**
+     * Shrinks the arrays to the size of the {@code IntDoublePairList}
+     */
+    public void trimToSize() {
+        if(this.as.length != this.size) {
+            this.as = Arrays.copyOf(this.as, this.size);
+            this.bs = Arrays.copyOf(this.bs, this.size);
+        }
+    }
+
+    /**
+     * @param index Index of the pair
+     * @return the first value of the pair at the given index
+     */
+    public int getA(int index) {
+        checkIndex(index);
+        return this.as[index];
+    }
+
+    /**
+     * @param index Index of the pair
+     * @return the second value of the pair at the given index
+     */
+    public double getB(int index) {
+        checkIndex(index);
+        return this.bs[index];
+    }
+
+    /**
+     * Copies the pair at the given index into the given {@link IntDoublePair}
+     * @param index Index of the pair
+     * @param dst The pair to write to
+     * @return {@code dst}
+     */
+    public IntDoublePair get(int index, IntDoublePair dst) {
+        checkIndex(index);
+        return dst.set(this.as[index], this.bs[index]);
+    }
+
+    /**
+     * Sets the first value of the pair at the given index
+     */
+    public void setA(int index, int a) {
+        checkIndex(index);
+        this.as[index] = a;
+    }
+
+    /**
+     * Sets the second value of the pair at the given index
+     */
+    public void setB(int index, double b) {
+        checkIndex(index);
+        this.bs[index] = b;
+    }
+
+    /**
+     * Sets both values of the pair at the given index
+     */
+    public void set(int index, int a, double b) {
+        checkIndex(index);
+        this.as[index] = a;
+        this.bs[index] = b;
+    }
+
+    /**
+     * Appends the given pair to the end of the {@code IntDoublePairList}
+     * @return {@code this}
+     */
+    public IntDoublePairList add(int a, double b) {
+        if(this.size == this.as.length)
+            ensureCapacity(this.size + 1);
+
+        this.as[this.size] = a;
+        this.bs[this.size ++] = b;
+        this.modCount ++;
+        return this;
+    }
+
+    /**
+     * Appends the given pair to the end of the {@code IntDoublePairList}
+     * @return {@code this}
+     */
+    public IntDoublePairList add(IntDoublePair pair) {
+        return add(pair.getA(), pair.getB());
+    }
+
+    /**
+     * Appends all pairs of the given {@code IntDoublePairList}
+     * @return {@code this}
+     */
+    public IntDoublePairList addAll(IntDoublePairList list) {
+        return addAll(list.as, list.bs, 0, list.size);
+    }
+
+    /**
+     * Appends the pairs formed by the given ranges of both arrays
+     * @param as First values
+     * @param bs Second values
+     * @param offset Index of the first pair in both arrays
+     * @param length Amount of pairs
+     * @return {@code this}
+     */
+    public IntDoublePairList addAll(int[] as, double[] bs, int offset, int length) {
+        if(offset < 0 || length < 0 || offset + length > as.length || offset + length > bs.length)
+            throw new IndexOutOfBoundsException("Range is out of bounds\n\tOffset: " + offset + ", Length: " + length + ", Array lengths: " + as.length + ", " + bs.length);
+
+        ensureCapacity(this.size + length);
+        System.arraycopy(as, offset, this.as, this.size, length);
+        System.arraycopy(bs, offset, this.bs, this.size, length);
+        this.size += length;
+        this.modCount ++;
+        return this;
+    }
+
+    /**
+     * Copies a range of pairs into the given arrays
+     * @param index Index of the first pair
+     * @param as Destination of the first values, may be {@code null} to skip them
+     * @param bs Destination of the second values, may be {@code null} to skip them
+     * @param dstIndex Index in both destination arrays
+     * @param length Amount of pairs
+     */
+    public void copyTo(int index, int[] as, double[] bs, int dstIndex, int length) {
+        if(index < 0 || length < 0 || index + length > this.size)
+            throw new IndexOutOfBoundsException("Range is out of bounds\n\tIndex: " + index + ", Length: " + length + ", Size: " + this.size);
+
+        if(as != null)
+            System.arraycopy(this.as, index, as, dstIndex, length);
+        if(bs != null)
+            System.arraycopy(this.bs, index, bs, dstIndex, length);
+    }
+
+    /**
+     * @return a copy of the first values
+     */
+    public int[] toArrayA() {
+        return Arrays.copyOf(this.as, this.size);
+    }
+
+    /**
+     * @return a copy of the second values
+     */
+    public double[] toArrayB() {
+        return Arrays.copyOf(this.bs, this.size);
+    }
+
+    /**
+     * Removes the pair at the given index and shifts the following pairs
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        removeRange(index, index + 1);
+    }
+
+    /**
+     * Removes all pairs in the given range
+     * @param start Start index
+     * @param end End index
+     */
+    public void removeRange(int start, int end) {
+        if(start < 0 || end > this.size || start > end)
+            throw new IndexOutOfBoundsException("Range is out of bounds\n\tStart: " + start + ", End: " + end + ", Size: " + this.size);
+
+        System.arraycopy(this.as, end, this.as, start, this.size - end);
+        System.arraycopy(this.bs, end, this.bs, start, this.size - end);
+        this.size -= end - start;
+        this.modCount ++;
+    }
+
+    /**
+     * Clears the {@code IntDoublePairList} but keeps its capacity
+     */
+    public void clear() {
+        this.size = 0;
+        this.modCount ++;
+    }
+
+    /**
+     * Sorts the pairs ascending by their first value, the order of equal values is not kept
+     */
+    public void sortByA() {
+        sortA(this.as, this.bs, 0, this.size);
+        this.modCount ++;
+    }
+
+    /**
+     * Sorts the pairs ascending by their second value, the order of equal values is not kept
+     */
+    public void sortByB() {
+        sortB(this.bs, this.as, 0, this.size);
+        this.modCount ++;
+    }
+
+    /**
+     * Sorts {@code keys} in {@code [from, to)} by a three-way quicksort and applies every swap to {@code others} too.
+     * The smaller partition is sorted recursively, so the stack depth stays logarithmic.
+     */
+    private static void sortA(int[] keys, double[] others, int from, int to) {
+        while(to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = from + to >>> 1;
+            int pivot = median(keys[from], keys[mid], keys[to - 1]);
+
+            // keys[from, lt) < pivot, keys[lt, i) == pivot, keys[gt, to) > pivot
+            int lt = from, i = from, gt = to;
+            while(i < gt) {
+                int c = Integer.compare(keys[i], pivot);
+                if(c < 0)
+                    sortASwap(keys, others, lt ++, i ++);
+                else if(c > 0)
+                    sortASwap(keys, others, i, -- gt);
+                else
+                    i ++;
+            }
+
+            if(lt - from < to - gt) {
+                sortA(keys, others, from, lt);
+                from = gt;
+            } else {
+                sortA(keys, others, gt, to);
+                to = lt;
+            }
+        }
+
+        for(int i = from + 1; i < to; i ++) {
+            int key = keys[i];
+            double other = others[i];
+            int j = i - 1;
+            while(j >= from && Integer.compare(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                others[j + 1] = others[j];
+                j --;
+            }
+            keys[j + 1] = key;
+            others[j + 1] = other;
+        }
+    }
+
+    private static void sortASwap(int[] keys, double[] others, int i, int j) {
+        int key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        double other = others[i];
+        others[i] = others[j];
+        others[j] = other;
+    }
+
+    /**
+     * Sorts {@code keys} in {@code [from, to)} by a three-way quicksort and applies every swap to {@code others} too.
+     * The smaller partition is sorted recursively, so the stack depth stays logarithmic.
+     */
+    private static void sortB(double[] keys, int[] others, int from, int to) {
+        while(to - from > INSERTION_SORT_THRESHOLD) {
+            int mid = from + to >>> 1;
+            double pivot = median(keys[from], keys[mid], keys[to - 1]);
+
+            // keys[from, lt) < pivot, keys[lt, i) == pivot, keys[gt, to) > pivot
+            int lt = from, i = from, gt = to;
+            while(i < gt) {
+                int c = Double.compare(keys[i], pivot);
+                if(c < 0)
+                    sortBSwap(keys, others, lt ++, i ++);
+                else if(c > 0)
+                    sortBSwap(keys, others, i, -- gt);
+                else
+                    i ++;
+            }
+
+            if(lt - from < to - gt) {
+                sortB(keys, others, from, lt);
+                from = gt;
+            } else {
+                sortB(keys, others, gt, to);
+                to = lt;
+            }
+        }
+
+        for(int i = from + 1; i < to; i ++) {
+            double key = keys[i];
+            int other = others[i];
+            int j = i - 1;
+            while(j >= from && Double.compare(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                others[j + 1] = others[j];
+                j --;
+            }
+            keys[j + 1] = key;
+            others[j + 1] = other;
+        }
+    }
+
+    private static void sortBSwap(double[] keys, int[] others, int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int other = others[i];
+        others[i] = others[j];
+        others[j] = other;
+    }
+
+    private static int median(int a, int b, int c) {
+        if(Integer.compare(a, b) > 0) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        if(Integer.compare(b, c) > 0)
+            b = Integer.compare(a, c) > 0 ? a : c;
+        return b;
+    }
+
+    private static double median(double a, double b, double c) {
+        if(Double.compare(a, b) > 0) {
+            double t = a;
+            a = b;
+            b = t;
+        }
+        if(Double.compare(b, c) > 0)
+            b = Double.compare(a, c) > 0 ? a : c;
+        return b;
+    }
+
+    /**
+     * @return a new {@link Cursor} placed before the first pair
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Iterates over the pairs without boxing them
+     *
+     * <pre>{@code
+     * IntDoublePairList.Cursor cursor = list.cursor();
+     * while(cursor.next())
+     *     use(cursor.a(), cursor.b());
+     * }</pre>
+     */
+    public final class Cursor {
+        private final int expectedModCount = IntDoublePairList.this.modCount;
+        private int index = -1;
+
+        private Cursor() {}
+
+        /**
+         * Moves to the next pair
+         * @return {@code false} if there is no next pair
+         */
+        public boolean next() {
+            if(IntDoublePairList.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+            if(this.index < IntDoublePairList.this.size)
+                this.index ++;
+            return this.index < IntDoublePairList.this.size;
+        }
+
+        /**
+         * @return the index of the current pair
+         */
+        public int index() {
+            if(this.index < 0 || this.index >= IntDoublePairList.this.size)
+                throw new NoSuchElementException();
+            return this.index;
+        }
+
+        /**
+         * @return the first value of the current pair
+         */
+        public int a() {
+            return IntDoublePairList.this.as[index()];
+        }
+
+        /**
+         * @return the second value of the current pair
+         */
+        public double b() {
+            return IntDoublePairList.this.bs[index()];
+        }
+
+        /**
+         * Sets the first value of the current pair
+         */
+        public void setA(int a) {
+            IntDoublePairList.this.as[index()] = a;
+        }
+
+        /**
+         * Sets the second value of the current pair
+         */
+        public void setB(double b) {
+            IntDoublePairList.this.bs[index()] = b;
+        }
+    }
+
+    /**
+     * String Format: {@code [{ a | b }, ...]}
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for(int i = 0; i < this.size; i ++) {
+            if(i > 0)
+                sb.append(", ");
+            sb.append("{ ").append(this.as[i]).append(" | ").append(this.bs[i]).append(" }");
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,329 @@
+package de.f.utils;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * A map from two {@code int} keys to an {@code int} value, stored in parallel primitive arrays
+ *
+ * <p>Neither keys nor values are boxed and there are no entry objects, so {@link #get(int, int, int)},
+ * {@link #put(int, int, int)} and iterating with a {@link Cursor} do not allocate. The table uses the same Robin
+ * Hood hashing as {@link DoubleMap}.</p>
+ * @see DoubleMap
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class IntIntIntMap {
+    private static final int DEFAULT_CAPACITY = 1 << 4;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] keys1;
+    private int[] keys2;
+    private int[] values;
+    /** Hash of the entry in each slot, {@code 0} marks an empty slot */
+    private int[] hashes;
+    private int size;
+    /** Size at which the table grows, 3/4 of the capacity */
+    private int threshold;
+    private int modCount;
+
+    /**
+     * Generates a new empty {@code IntIntIntMap}
+     */
+    public IntIntIntMap() {
+        init(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Generates a new empty {@code IntIntIntMap} which can hold the given amount of entries without growing
+     * @param expectedSize Expected amount of entries
+     */
+    public IntIntIntMap(int expectedSize) {
+        if(expectedSize < 0)
+            throw new IllegalArgumentException("Expected size must not be negative\n\tExpected size: " + expectedSize);
+
+        int capacity = DEFAULT_CAPACITY;
+        while(capacity < MAX_CAPACITY && capacity / 4 * 3 < expectedSize)
+            capacity <<= 1;
+        init(capacity);
+    }
+
+    private void init(int capacity) {
+        this.keys1 = new int[capacity];
+        this.keys2 = new int[capacity];
+        this.values = new int[capacity];
+        this.hashes = new int[capacity];
+        this.threshold = capacity == MAX_CAPACITY ? MAX_CAPACITY : capacity / 4 * 3;
+    }
+
+    /**
+     * @return the slot of the entry with the given keys or {@code -1}
+     */
+    private int find(int k1, int k2, int hash) {
+        int mask = this.hashes.length - 1;
+        for(int slot = hash & mask, distance = 0; ; slot = slot + 1 & mask, distance ++) {
+            int h = this.hashes[slot];
+            if(h == 0 || (slot - h & mask) < distance)
+                return -1;
+            if(h == hash && this.keys1[slot] == k1 && this.keys2[slot] == k2)
+                return slot;
+        }
+    }
+
+    private void insert(int hash, int k1, int k2, int v) {
+        int mask = this.hashes.length - 1;
+        for(int slot = hash & mask, distance = 0; ; slot = slot + 1 & mask, distance ++) {
+            int h = this.hashes[slot];
+            if(h == 0) {
+                this.hashes[slot] = hash;
+                this.keys1[slot] = k1;
+                this.keys2[slot] = k2;
+                this.values[slot] = v;
+                return;
+            }
+
+            int d = slot - h & mask;
+            if(d < distance) {
+                int key1 = this.keys1[slot];
+                int key2 = this.keys2[slot];
+                int value = this.values[slot];
+                this.hashes[slot] = hash;
+                this.keys1[slot] = k1;
+                this.keys2[slot] = k2;
+                this.values[slot] = v;
+                hash = h;
+                k1 = key1;
+                k2 = key2;
+                v = value;
+                distance = d;
+            }
+        }
+    }
+
+    private void resize() {
+        if(this.hashes.length == MAX_CAPACITY)
+            throw new IllegalStateException("IntIntIntMap is full\n\tSize: " + this.size);
+
+        int[] keys1 = this.keys1;
+        int[] keys2 = this.keys2;
+        int[] values = this.values;
+        int[] hashes = this.hashes;
+        init(hashes.length << 1);
+        for(int i = 0; i < hashes.length; i ++)
+            if(hashes[i] != 0)
+                insert(hashes[i], keys1[i], keys2[i], values[i]);
+    }
+
+    /**
+     * Associates the value with both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value
+     * @return {@code true} if the keys had no value yet
+     */
+    public boolean put(int k1, int k2, int v) {
+        int hash = DoubleMap.hash(k1, k2);
+        int slot = find(k1, k2, hash);
+        if(slot >= 0) {
+            this.values[slot] = v;
+            return false;
+        }
+
+        if(this.size >= this.threshold)
+            resize();
+        insert(hash, k1, k2, v);
+        this.size ++;
+        this.modCount ++;
+        return true;
+    }
+
+    /**
+     * Adds the given amount to the value of both keys, a missing value counts as {@code 0}
+     * @param k1 First key
+     * @param k2 Second key
+     * @param delta Amount to add
+     * @return the new value
+     */
+    public int add(int k1, int k2, int delta) {
+        int hash = DoubleMap.hash(k1, k2);
+        int slot = find(k1, k2, hash);
+        if(slot >= 0)
+            return this.values[slot] += delta;
+
+        if(this.size >= this.threshold)
+            resize();
+        insert(hash, k1, k2, delta);
+        this.size ++;
+        this.modCount ++;
+        return delta;
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @param defaultValue Value returned if there is no value
+     * @return the value of both keys or {@code defaultValue}
+     */
+    public int get(int k1, int k2, int defaultValue) {
+        int slot = find(k1, k2, DoubleMap.hash(k1, k2));
+        return slot >= 0 ? this.values[slot] : defaultValue;
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return {@code true} if a value is associated with both keys
+     */
+    public boolean containsKey(int k1, int k2) {
+        return find(k1, k2, DoubleMap.hash(k1, k2)) >= 0;
+    }
+
+    /**
+     * Removes the entry of both keys
+     * @param k1 First key
+     * @param k2 Second key
+     * @return {@code true} if there was an entry
+     */
+    public boolean remove(int k1, int k2) {
+        int slot = find(k1, k2, DoubleMap.hash(k1, k2));
+        if(slot < 0)
+            return false;
+
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Empties the slot and shifts the following entries back until one is in its home slot
+     */
+    private void removeSlot(int slot) {
+        int mask = this.hashes.length - 1;
+        int next = slot + 1 & mask;
+        while(this.hashes[next] != 0 && (next - this.hashes[next] & mask) > 0) {
+            this.hashes[slot] = this.hashes[next];
+            this.keys1[slot] = this.keys1[next];
+            this.keys2[slot] = this.keys2[next];
+            this.values[slot] = this.values[next];
+            slot = next;
+            next = next + 1 & mask;
+        }
+        this.hashes[slot] = 0;
+        this.size --;
+        this.modCount ++;
+    }
+
+    /**
+     * @return the amount of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the {@code IntIntIntMap} has no entries
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all entries but keeps the capacity
+     */
+    public void clear() {
+        Arrays.fill(this.hashes, 0);
+        this.size = 0;
+        this.modCount ++;
+    }
+
+    /**
+     * @return a new {@link Cursor} placed before the first entry
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Iterates over the entries in table order without boxing them
+     *
+     * <pre>{@code
+     * IntIntIntMap.Cursor cursor = map.cursor();
+     * while(cursor.next())
+     *     use(cursor.key1(), cursor.key2(), cursor.value());
+     * }</pre>
+     */
+    public final class Cursor {
+        private final int expectedModCount = IntIntIntMap.this.modCount;
+        private int slot = -1;
+
+        private Cursor() {}
+
+        /**
+         * Moves to the next entry
+         * @return {@code false} if there is no next entry
+         */
+        public boolean next() {
+            if(IntIntIntMap.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+
+            int[] hashes = IntIntIntMap.this.hashes;
+            do {
+                this.slot ++;
+            } while(this.slot < hashes.length && hashes[this.slot] == 0);
+            return this.slot < hashes.length;
+        }
+
+        private int slot() {
+            if(this.slot < 0 || this.slot >= IntIntIntMap.this.hashes.length)
+                throw new NoSuchElementException();
+            return this.slot;
+        }
+
+        /**
+         * @return the first key of the current entry
+         */
+        public int key1() {
+            return IntIntIntMap.this.keys1[slot()];
+        }
+
+        /**
+         * @return the second key of the current entry
+         */
+        public int key2() {
+            return IntIntIntMap.this.keys2[slot()];
+        }
+
+        /**
+         * @return the value of the current entry
+         */
+        public int value() {
+            return IntIntIntMap.this.values[slot()];
+        }
+
+        /**
+         * Replaces the value of the current entry
+         * @param v Value
+         */
+        public void setValue(int v) {
+            IntIntIntMap.this.values[slot()] = v;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if(this.size == 0)
+            return "{}";
+
+        StringBuilder sb = new StringBuilder("{ ");
+        for(int i = 0; i < this.hashes.length; i ++) {
+            if(this.hashes[i] == 0)
+                continue;
+            if(sb.length() > 2)
+                sb.append(", ");
+            sb.append(this.keys1[i]).append(" | ").append(this.keys2[i]).append(" = ").append(this.values[i]);
+        }
+        return sb.append(" }").toString();
+    }
+}
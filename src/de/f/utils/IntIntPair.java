@@ -0,0 +1,74 @@
+package de.f.utils;
+
+/**
+ * A pair of an {@code int} and an {@code int} without boxing
+ *
+ * @see DoubleValue
+ * @see IntIntPairList
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class IntIntPair {
+    private int a;
+    private int b;
+
+    public IntIntPair() {
+
+    }
+    public IntIntPair(int a, int b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    public int getA() {
+        return this.a;
+    }
+    public void setA(int a) {
+        this.a = a;
+    }
+    public int getB() {
+        return this.b;
+    }
+    public void setB(int b) {
+        this.b = b;
+    }
+
+    /**
+     * Sets both values
+     * @return {@code this}
+     */
+    public IntIntPair set(int a, int b) {
+        this.a = a;
+        this.b = b;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IntIntPair p && this.a == p.a && this.b == p.b;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(this.a) * 31 + Integer.hashCode(this.b);
+    }
+
+    /**
+     * String Format: {@code { a | b }}
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        return "{ " + this.a + " | " + this.b + " }";
+    }
+
+    /**
+     * @return {@link IntIntPair}
+     */
+    @Override
+    public IntIntPair clone() {
+        return new IntIntPair(this.a, this.b);
+    }
+}
@@ -0,0 +1,108 @@
+package de.f.utils;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive {@code int} values
+ * <p>Used to collect search results without boxing every index into an {@link Integer}.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    private static final int DEFAULT_SIZE = 1 << 4;
+
+    /**
+     * Generates a new {@code IntList} with the starting capacity of {@value DEFAULT_SIZE}
+     */
+    public IntList() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Generates a new {@code IntList} with the given starting capacity
+     * @param startCapacity Starting capacity of the {@code IntList}
+     */
+    public IntList(int startCapacity) {
+        this.values = new int[startCapacity];
+        this.size = 0;
+    }
+
+    /**
+     * @return the amount of values in the {@code IntList}
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if the {@code IntList} is empty, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @param index Index of the value
+     * @return The value at the given index
+     */
+    public int get(int index) {
+        if(index >= this.size || index < 0)
+            throw new IndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Size: " + this.size);
+        return this.values[index];
+    }
+
+    /**
+     * Sets the value at the given index
+     * @param index Index of the value
+     * @param value New value
+     */
+    public void set(int index, int value) {
+        if(index >= this.size || index < 0)
+            throw new IndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Size: " + this.size);
+        this.values[index] = value;
+    }
+
+    /**
+     * Appends the given value to the end of the {@code IntList}
+     * @param value Value
+     * @return {@code this}
+     */
+    public IntList add(int value) {
+        if(this.size == this.values.length)
+            this.values = Arrays.copyOf(this.values, Math.max(this.values.length << 1, 1));
+
+        this.values[this.size ++] = value;
+        return this;
+    }
+
+    /**
+     * Clears the {@code IntList} but keeps its capacity
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Sorts the values in ascending order
+     */
+    public void sort() {
+        Arrays.sort(this.values, 0, this.size);
+    }
+
+    /**
+     * @return a copy of the values as an {@code int[]}
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
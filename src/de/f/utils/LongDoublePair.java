@@ -0,0 +1,74 @@
+package de.f.utils;
+
+/**
+ * A pair of a {@code long} and a {@code double} without boxing
+ *
+ * @see DoubleValue
+ * @see LongDoublePairList
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class LongDoublePair {
+    private long a;
+    private double b;
+
+    public LongDoublePair() {
+
+    }
+    public LongDoublePair(long a, double b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    public long getA() {
+        return this.a;
+    }
+    public void setA(long a) {
+        this.a = a;
+    }
+    public double getB() {
+        return this.b;
+    }
+    public void setB(double b) {
+        this.b = b;
+    }
+
+    /**
+     * Sets both values
+     * @return {@code this}
+     */
+    public LongDoublePair set(long a, double b) {
+        this.a = a;
+        this.b = b;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LongDoublePair p && this.a == p.a && Double.compare(this.b, p.b) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.a) * 31 + Double.hashCode(this.b);
+    }
+
+    /**
+     * String Format: {@code { a | b }}
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        return "{ " + this.a + " | " + this.b + " }";
+    }
+
+    /**
+     * @return {@link LongDoublePair}
+     */
+    @Override
+    public LongDoublePair clone() {
+        return new LongDoublePair(this.a, this.b);
+    }
+}
@@ -0,0 +1,74 @@
+package de.f.utils;
+
+/**
+ * A pair of a {@code long} and a {@code long} without boxing
+ *
+ * @see DoubleValue
+ * @see LongLongPairList
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class LongLongPair {
+    private long a;
+    private long b;
+
+    public LongLongPair() {
+
+    }
+    public LongLongPair(long a, long b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    public long getA() {
+        return this.a;
+    }
+    public void setA(long a) {
+        this.a = a;
+    }
+    public long getB() {
+        return this.b;
+    }
+    public void setB(long b) {
+        this.b = b;
+    }
+
+    /**
+     * Sets both values
+     * @return {@code this}
+     */
+    public LongLongPair set(long a, long b) {
+        this.a = a;
+        this.b = b;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LongLongPair p && this.a == p.a && this.b == p.b;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.a) * 31 + Long.hashCode(this.b);
+    }
+
+    /**
+     * String Format: {@code { a | b }}
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        return "{ " + this.a + " | " + this.b + " }";
+    }
+
+    /**
+     * @return {@link LongLongPair}
+     */
+    @Override
+    public LongLongPair clone() {
+        return new LongLongPair(this.a, this.b);
+    }
+}
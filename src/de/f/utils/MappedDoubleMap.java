@@ -0,0 +1,547 @@
+package de.f.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent map from two {@code long} keys to a value, stored off-heap in a memory-mapped file
+ *
+ * <p>The file is a hash table of fixed-size slots using linear probing, each slot holds a state byte, both keys and
+ * the value written by a {@link Codec}. Opening the file only maps it, the pages are loaded by the operating system
+ * once they are read, so a large map is ready in milliseconds and the heap holds almost nothing.</p>
+ *
+ * <p>Changes are kept on the heap until {@link #commit()}, which first writes them to a journal next to the file and
+ * forces it to disk, then applies them to the table. Every change writes a single slot and sets its state last, so
+ * replaying the journal after a crash repairs a partly applied commit. An uncommitted journal is discarded when the
+ * map is opened again, so the map is always in the state of the last commit. A {@code MappedDoubleMap} is not
+ * thread-safe.</p>
+ * @see DoubleMap
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class MappedDoubleMap<V> implements Closeable {
+    /**
+     * Writes and reads values of a fixed size
+     */
+    public interface Codec<V> {
+        /**
+         * @return the size of every value in bytes
+         */
+        int size();
+
+        /**
+         * Writes the value at the given offset, using at most {@link #size()} bytes
+         */
+        void write(V v, ByteBuffer dst, int offset);
+
+        /**
+         * Reads the value at the given offset
+         */
+        V read(ByteBuffer src, int offset);
+    }
+
+    /** {@link Codec} for {@code long} values */
+    public static final Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int size() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long v, ByteBuffer dst, int offset) {
+            dst.putLong(offset, v);
+        }
+
+        @Override
+        public Long read(ByteBuffer src, int offset) {
+            return src.getLong(offset);
+        }
+    };
+
+    /** {@link Codec} for {@code double} values */
+    public static final Codec<Double> DOUBLE = new Codec<>() {
+        @Override
+        public int size() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void write(Double v, ByteBuffer dst, int offset) {
+            dst.putDouble(offset, v);
+        }
+
+        @Override
+        public Double read(ByteBuffer src, int offset) {
+            return src.getDouble(offset);
+        }
+    };
+
+    /**
+     * Gets a {@link Codec} storing {@link String}s as UTF-8 with a length prefix
+     * @param maxBytes Maximum length of an encoded {@link String}
+     * @return {@link Codec}
+     */
+    public static Codec<String> string(int maxBytes) {
+        return new Codec<>() {
+            @Override
+            public int size() {
+                return Short.BYTES + maxBytes;
+            }
+
+            @Override
+            public void write(String v, ByteBuffer dst, int offset) {
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                if(bytes.length > maxBytes)
+                    throw new IllegalArgumentException("String is too long\n\tLength: " + bytes.length + ", Max: " + maxBytes);
+                dst.putShort(offset, (short) bytes.length);
+                dst.put(offset + Short.BYTES, bytes);
+            }
+
+            @Override
+            public String read(ByteBuffer src, int offset) {
+                byte[] bytes = new byte[src.getShort(offset) & 0xFFFF];
+                src.get(offset + Short.BYTES, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    // ---- file layout ----
+
+    private static final int MAGIC = 0x444D4150;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int VALUE_SIZE_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SIZE_OFFSET = 16;
+    private static final int TOMBSTONES_OFFSET = 24;
+
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte TOMBSTONE = 2;
+    /** Slot layout: state, first key, second key, value */
+    private static final int KEYS_SIZE = 1 + 2 * Long.BYTES;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte COMMIT = 3;
+
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 30;
+    /** Maximum size of one mapping, a mapping always holds a whole amount of slots */
+    private static final long CHUNK_SIZE = 1L << 30;
+
+    /**
+     * The mapped slots of one file
+     */
+    private static final class Table {
+        private final FileChannel channel;
+        private final MappedByteBuffer header;
+        private final MappedByteBuffer[] chunks;
+        private final int slotSize;
+        private final int chunkShift;
+        private final int capacity;
+        private long size;
+        private long tombstones;
+
+        private Table(FileChannel channel, int slotSize, int capacity) throws IOException {
+            this.channel = channel;
+            this.slotSize = slotSize;
+            this.capacity = capacity;
+            this.chunkShift = 31 - Integer.numberOfLeadingZeros((int) Math.min(CHUNK_SIZE / slotSize, MAX_CAPACITY));
+
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            int slotsPerChunk = 1 << this.chunkShift;
+            this.chunks = new MappedByteBuffer[(capacity + slotsPerChunk - 1) >>> this.chunkShift];
+            for(int i = 0; i < this.chunks.length; i ++) {
+                long slots = Math.min(slotsPerChunk, capacity - ((long) i << this.chunkShift));
+                this.chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + ((long) i << this.chunkShift) * slotSize, slots * slotSize);
+            }
+        }
+
+        private static Table create(Path path, int valueSize, int capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) capacity * (KEYS_SIZE + valueSize) - 1);
+
+            Table table = new Table(channel, KEYS_SIZE + valueSize, capacity);
+            table.header.putInt(MAGIC_OFFSET, MAGIC);
+            table.header.putInt(VERSION_OFFSET, VERSION);
+            table.header.putInt(VALUE_SIZE_OFFSET, valueSize);
+            table.header.putInt(CAPACITY_OFFSET, capacity);
+            table.writeHeader();
+            return table;
+        }
+
+        private static Table open(Path path, int valueSize) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+
+            try {
+                if(header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION)
+                    throw new IOException("File is no MappedDoubleMap\n\tPath: " + path);
+                if(header.getInt(VALUE_SIZE_OFFSET) != valueSize)
+                    throw new IOException("Codec does not match the file\n\tValue size: " + valueSize + ", File: " + header.getInt(VALUE_SIZE_OFFSET));
+            } catch(IOException e) {
+                channel.close();
+                throw e;
+            }
+
+            Table table = new Table(channel, KEYS_SIZE + valueSize, header.getInt(CAPACITY_OFFSET));
+            table.size = header.getLong(SIZE_OFFSET);
+            table.tombstones = header.getLong(TOMBSTONES_OFFSET);
+            return table;
+        }
+
+        private MappedByteBuffer chunk(int slot) {
+            return this.chunks[slot >>> this.chunkShift];
+        }
+
+        private int offset(int slot) {
+            return (slot & (1 << this.chunkShift) - 1) * this.slotSize;
+        }
+
+        private byte state(int slot) {
+            return chunk(slot).get(offset(slot));
+        }
+
+        /**
+         * @return the slot of both keys or {@code -1 - slot} of the slot a new entry would be written to
+         */
+        private int find(long k1, long k2) {
+            int mask = this.capacity - 1;
+            int free = -1;
+            for(int slot = DoubleMap.hash(k1, k2) & mask, probes = 0; probes < this.capacity; slot = slot + 1 & mask, probes ++) {
+                MappedByteBuffer chunk = chunk(slot);
+                int offset = offset(slot);
+                byte state = chunk.get(offset);
+
+                if(state == EMPTY)
+                    return -1 - (free >= 0 ? free : slot);
+                if(state == TOMBSTONE) {
+                    if(free < 0)
+                        free = slot;
+                } else if(chunk.getLong(offset + 1) == k1 && chunk.getLong(offset + 1 + Long.BYTES) == k2) {
+                    return slot;
+                }
+            }
+            return -1 - free;
+        }
+
+        /**
+         * Writes the entry, the state is written last so a torn write leaves the slot unused
+         */
+        private void put(long k1, long k2, byte[] value) {
+            int slot = find(k1, k2);
+            if(slot >= 0) {
+                chunk(slot).put(offset(slot) + KEYS_SIZE, value);
+                return;
+            }
+
+            slot = -1 - slot;
+            MappedByteBuffer chunk = chunk(slot);
+            int offset = offset(slot);
+            if(chunk.get(offset) == TOMBSTONE)
+                this.tombstones --;
+            chunk.putLong(offset + 1, k1);
+            chunk.putLong(offset + 1 + Long.BYTES, k2);
+            chunk.put(offset + KEYS_SIZE, value);
+            chunk.put(offset, FULL);
+            this.size ++;
+        }
+
+        private void remove(long k1, long k2) {
+            int slot = find(k1, k2);
+            if(slot < 0)
+                return;
+
+            chunk(slot).put(offset(slot), TOMBSTONE);
+            this.size --;
+            this.tombstones ++;
+        }
+
+        /**
+         * Counts the entries again, used after a journal was replayed on a partly applied table
+         */
+        private void recount() {
+            this.size = 0;
+            this.tombstones = 0;
+            for(int slot = 0; slot < this.capacity; slot ++) {
+                byte state = state(slot);
+                if(state == FULL)
+                    this.size ++;
+                else if(state == TOMBSTONE)
+                    this.tombstones ++;
+            }
+        }
+
+        private void writeHeader() {
+            this.header.putLong(SIZE_OFFSET, this.size);
+            this.header.putLong(TOMBSTONES_OFFSET, this.tombstones);
+        }
+
+        private void force() {
+            for(MappedByteBuffer chunk: this.chunks)
+                chunk.force();
+            writeHeader();
+            this.header.force();
+        }
+    }
+
+    // ---- map ----
+
+    private final Path path;
+    private final Path journal;
+    private final Codec<V> codec;
+    private Table table;
+    /** Uncommitted changes, {@code null} values mark removed entries */
+    private final DoubleMap<Long, Long, byte[]> pending = new DoubleMap<>();
+
+    private MappedDoubleMap(Path path, Codec<V> codec) {
+        this.path = path;
+        this.journal = path.resolveSibling(path.getFileName() + ".journal");
+        this.codec = codec;
+    }
+
+    /**
+     * Opens the given file or creates it, a committed journal left by a crash is replayed
+     * @param path Path of the file
+     * @param codec {@link Codec} of the values, must have the same size as the one the file was created with
+     * @return {@link MappedDoubleMap}
+     * @throws IOException If the file can not be read or was not created by a {@code MappedDoubleMap}
+     */
+    public static <V> MappedDoubleMap<V> open(Path path, Codec<V> codec) throws IOException {
+        MappedDoubleMap<V> map = new MappedDoubleMap<>(path, codec);
+        Files.deleteIfExists(map.temp());
+
+        if(Files.exists(path) && Files.size(path) > 0)
+            map.table = Table.open(path, codec.size());
+        else
+            map.table = Table.create(path, codec.size(), DEFAULT_CAPACITY);
+
+        map.recover();
+        return map;
+    }
+
+    private Path temp() {
+        return this.path.resolveSibling(this.path.getFileName() + ".tmp");
+    }
+
+    private byte[] encode(V v) {
+        byte[] bytes = new byte[this.codec.size()];
+        this.codec.write(v, ByteBuffer.wrap(bytes), 0);
+        return bytes;
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return the value of both keys, including uncommitted changes, or {@code null}
+     */
+    public V get(long k1, long k2) {
+        if(!this.pending.isEmpty()) {
+            DoubleMap.Entry<Long, Long, byte[]> entry = this.pending.getEntry(k1, k2);
+            if(entry != null)
+                return entry.getValue() != null ? this.codec.read(ByteBuffer.wrap(entry.getValue()), 0) : null;
+        }
+
+        int slot = this.table.find(k1, k2);
+        if(slot < 0)
+            return null;
+        return this.codec.read(this.table.chunk(slot), this.table.offset(slot) + KEYS_SIZE);
+    }
+
+    /**
+     * @param k1 First key
+     * @param k2 Second key
+     * @return {@code true} if both keys have a value, including uncommitted changes
+     */
+    public boolean containsKey(long k1, long k2) {
+        if(!this.pending.isEmpty()) {
+            DoubleMap.Entry<Long, Long, byte[]> entry = this.pending.getEntry(k1, k2);
+            if(entry != null)
+                return entry.getValue() != null;
+        }
+        return this.table.find(k1, k2) >= 0;
+    }
+
+    /**
+     * Associates the value with both keys once {@link #commit()} is called
+     * @param k1 First key
+     * @param k2 Second key
+     * @param v Value, must not be {@code null}
+     */
+    public void put(long k1, long k2, V v) {
+        this.pending.put(k1, k2, encode(v));
+    }
+
+    /**
+     * Removes the entry of both keys once {@link #commit()} is called
+     * @param k1 First key
+     * @param k2 Second key
+     */
+    public void remove(long k1, long k2) {
+        this.pending.put(k1, k2, null);
+    }
+
+    /**
+     * @return the amount of committed entries
+     */
+    public long size() {
+        return this.table.size;
+    }
+
+    /**
+     * @return the amount of uncommitted changes
+     */
+    public int pendingChanges() {
+        return this.pending.size();
+    }
+
+    /**
+     * Discards all uncommitted changes
+     */
+    public void rollback() {
+        this.pending.clear();
+    }
+
+    /**
+     * Writes all uncommitted changes durably: they are forced to the journal, applied to the table, the table is
+     * forced and the journal is deleted
+     * @throws IOException If the journal or the table can not be written
+     */
+    public void commit() throws IOException {
+        if(this.pending.isEmpty())
+            return;
+
+        int recordSize = 1 + 2 * Long.BYTES + this.codec.size();
+        ByteBuffer log = ByteBuffer.allocate(this.pending.size() * recordSize + 1 + Integer.BYTES + Long.BYTES);
+        for(DoubleMap.Entry<Long, Long, byte[]> entry: this.pending) {
+            log.put(entry.getValue() != null ? PUT : REMOVE);
+            log.putLong(entry.getKey1());
+            log.putLong(entry.getKey2());
+            if(entry.getValue() != null)
+                log.put(entry.getValue());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(log.array(), 0, log.position());
+        log.put(COMMIT).putInt(this.pending.size()).putLong(crc.getValue());
+        log.flip();
+
+        try(FileChannel channel = FileChannel.open(this.journal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while(log.hasRemaining())
+                channel.write(log);
+            channel.force(true);
+        }
+
+        log.flip();
+        apply(log, this.pending.size());
+        this.pending.clear();
+    }
+
+    /**
+     * Replays a committed journal, a journal without a valid commit record is discarded
+     */
+    private void recover() throws IOException {
+        if(!Files.exists(this.journal))
+            return;
+
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(this.journal));
+        int trailer = 1 + Integer.BYTES + Long.BYTES;
+        if(log.limit() >= trailer && log.get(log.limit() - trailer) == COMMIT) {
+            CRC32 crc = new CRC32();
+            crc.update(log.array(), 0, log.limit() - trailer);
+            if(crc.getValue() == log.getLong(log.limit() - Long.BYTES)) {
+                apply(log, log.getInt(log.limit() - trailer + 1));
+                this.table.recount();
+                this.table.force();
+            }
+        }
+        Files.deleteIfExists(this.journal);
+    }
+
+    /**
+     * Applies the records of a journal to the table and deletes the journal afterwards
+     */
+    private void apply(ByteBuffer log, int count) throws IOException {
+        ensureCapacity(count);
+
+        byte[] value = new byte[this.codec.size()];
+        for(int i = 0; i < count; i ++) {
+            byte op = log.get();
+            long k1 = log.getLong();
+            long k2 = log.getLong();
+            if(op == PUT) {
+                log.get(value);
+                this.table.put(k1, k2, value);
+            } else {
+                this.table.remove(k1, k2);
+            }
+        }
+
+        this.table.force();
+        Files.deleteIfExists(this.journal);
+    }
+
+    /**
+     * Rebuilds the table into a new file if the given amount of new entries would fill more than 3/4 of it. The new
+     * file replaces the old one atomically after it was forced, so a crash leaves either of them.
+     */
+    private void ensureCapacity(int added) throws IOException {
+        long used = this.table.size + this.table.tombstones + added;
+        if(used <= this.table.capacity / 4 * 3)
+            return;
+
+        long needed = (this.table.size + added) * 2;
+        int capacity = DEFAULT_CAPACITY;
+        while(capacity < needed) {
+            if(capacity == MAX_CAPACITY)
+                throw new IllegalStateException("MappedDoubleMap is full\n\tSize: " + this.table.size);
+            capacity <<= 1;
+        }
+
+        Path temp = temp();
+        Table next = Table.create(temp, this.codec.size(), capacity);
+        byte[] value = new byte[this.codec.size()];
+        for(int slot = 0; slot < this.table.capacity; slot ++) {
+            if(this.table.state(slot) != FULL)
+                continue;
+
+            MappedByteBuffer chunk = this.table.chunk(slot);
+            int offset = this.table.offset(slot);
+            chunk.get(offset + KEYS_SIZE, value);
+            next.put(chunk.getLong(offset + 1), chunk.getLong(offset + 1 + Long.BYTES), value);
+        }
+        next.force();
+        next.channel.close();
+        this.table.channel.close();
+
+        Files.move(temp, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.table = Table.open(this.path, this.codec.size());
+    }
+
+    /**
+     * Closes the file, uncommitted changes are discarded
+     * @throws IOException If the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.pending.clear();
+        this.table.force();
+        this.table.channel.close();
+    }
+}
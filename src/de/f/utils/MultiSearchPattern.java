@@ -0,0 +1,212 @@
+package de.f.utils;
+
+import java.util.Arrays;
+
+/**
+ * A precompiled set of substring patterns using the Aho-Corasick algorithm
+ * <p>All patterns are found in a single pass over the text. The automaton is stored as a flat transition table
+ * over the chars used by the patterns, every other char maps to the same column.</p>
+ * @see SearchPattern
+ * @see StringBuilder#indicesOfAny(MultiSearchPattern, int, int, IntList, IntList)
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class MultiSearchPattern {
+    private final String[] patterns;
+
+    /** Sorted distinct chars of all patterns, the column of a char is its index + 1 */
+    private final char[] alphabet;
+    private final int[] latinColumns;
+    private final int columns;
+
+    private final int[] transitions;
+    /** First pattern ending in a state or {@code -1} */
+    private final int[] outputs;
+    /** Next state on the suffix chain having an output or {@code -1} */
+    private final int[] outputLinks;
+    /** Next pattern equal to a pattern or {@code -1} */
+    private final int[] duplicates;
+
+    private MultiSearchPattern(String[] patterns) {
+        this.patterns = patterns;
+
+        int total = 0;
+        for(String p: patterns) {
+            if(p.isEmpty())
+                throw new IllegalArgumentException("Pattern must not be empty");
+            total += p.length();
+        }
+
+        char[] chars = new char[total];
+        int n = 0;
+        for(String p: patterns) {
+            p.getChars(0, p.length(), chars, n);
+            n += p.length();
+        }
+        Arrays.sort(chars);
+        int distinct = 0;
+        for(int i = 0; i < chars.length; i ++)
+            if(i == 0 || chars[i] != chars[i - 1])
+                chars[distinct ++] = chars[i];
+        this.alphabet = Arrays.copyOf(chars, distinct);
+        this.columns = distinct + 1;
+
+        this.latinColumns = new int[1 << 8];
+        for(int i = 0; i < distinct && this.alphabet[i] < 1 << 8; i ++)
+            this.latinColumns[this.alphabet[i]] = i + 1;
+
+        // ---- trie ----
+
+        int maxStates = total + 1;
+        int[] delta = new int[maxStates * this.columns];
+        int[] out = new int[maxStates];
+        Arrays.fill(out, -1);
+        this.duplicates = new int[patterns.length];
+        Arrays.fill(this.duplicates, -1);
+
+        int states = 1;
+        for(int p = 0; p < patterns.length; p ++) {
+            String pattern = patterns[p];
+            int s = 0;
+            for(int i = 0; i < pattern.length(); i ++) {
+                int t = s * this.columns + column(pattern.charAt(i));
+                if(delta[t] == 0)
+                    delta[t] = states ++;
+                s = delta[t];
+            }
+
+            if(out[s] == -1) {
+                out[s] = p;
+            } else {
+                int last = out[s];
+                while(this.duplicates[last] != -1)
+                    last = this.duplicates[last];
+                this.duplicates[last] = p;
+            }
+        }
+
+        // ---- failure links, breadth first ----
+
+        int[] fail = new int[states];
+        int[] links = new int[states];
+        Arrays.fill(links, -1);
+        int[] queue = new int[states];
+        int head = 0, tail = 0;
+
+        for(int k = 0; k < this.columns; k ++)
+            if(delta[k] != 0)
+                queue[tail ++] = delta[k];
+
+        while(head < tail) {
+            int s = queue[head ++];
+            int f = fail[s];
+            for(int k = 0; k < this.columns; k ++) {
+                int index = s * this.columns + k;
+                int t = delta[index];
+                if(t != 0) {
+                    int ft = delta[f * this.columns + k];
+                    fail[t] = ft;
+                    links[t] = out[ft] != -1 ? ft : links[ft];
+                    queue[tail ++] = t;
+                } else {
+                    delta[index] = delta[f * this.columns + k];
+                }
+            }
+        }
+
+        this.transitions = Arrays.copyOf(delta, states * this.columns);
+        this.outputs = Arrays.copyOf(out, states);
+        this.outputLinks = links;
+    }
+
+    /**
+     * Compiles the given patterns into a {@code MultiSearchPattern}
+     * @param patterns The substrings to search for, must not be empty
+     * @return {@link MultiSearchPattern}
+     */
+    public static MultiSearchPattern compile(String... patterns) {
+        return new MultiSearchPattern(patterns.clone());
+    }
+
+    /**
+     * @return the amount of patterns
+     */
+    public int size() {
+        return this.patterns.length;
+    }
+
+    /**
+     * @param index Index of the pattern
+     * @return The pattern at the given index
+     */
+    public String getPattern(int index) {
+        return this.patterns[index];
+    }
+
+    private int column(char c) {
+        if(c < 1 << 8)
+            return this.latinColumns[c];
+
+        int index = Arrays.binarySearch(this.alphabet, c);
+        return index < 0 ? 0 : index + 1;
+    }
+
+    private void emit(int state, int position, int offset, IntList indices, IntList patterns) {
+        for(int s = this.outputs[state] != -1 ? state : this.outputLinks[state]; s != -1; s = this.outputLinks[s]) {
+            for(int p = this.outputs[s]; p != -1; p = this.duplicates[p]) {
+                indices.add(position - this.patterns[p].length() + 1 - offset);
+                if(patterns != null)
+                    patterns.add(p);
+            }
+        }
+    }
+
+    /**
+     * Adds the indices of all pattern occurrences in the given {@link CharSequence}, ordered by their end index
+     * @param cs The text to search in
+     * @param start The start index
+     * @param end The end index
+     * @param indices The list the start indices are added to
+     * @param patterns The list the matching pattern indices are added to, may be {@code null}
+     * @return {@code indices}
+     */
+    public IntList indicesOf(CharSequence cs, int start, int end, IntList indices, IntList patterns) {
+        if(cs instanceof StringBuilder sb)
+            return sb.indicesOfAny(this, start, end, indices, patterns);
+
+        int state = 0;
+        for(int i = start; i < end; i ++) {
+            state = this.transitions[state * this.columns + column(cs.charAt(i))];
+            if(this.outputs[state] != -1 || this.outputLinks[state] != -1)
+                emit(state, i, 0, indices, patterns);
+        }
+
+        return indices;
+    }
+
+    /**
+     * Searches a raw {@code char[]}, the added indices are reduced by {@code offset}
+     */
+    void indicesOf(char[] text, int start, int end, int offset, IntList indices, IntList patterns) {
+        int state = 0;
+        for(int i = start; i < end; i ++) {
+            state = this.transitions[state * this.columns + column(text[i])];
+            if(this.outputs[state] != -1 || this.outputLinks[state] != -1)
+                emit(state, i, offset, indices, patterns);
+        }
+    }
+
+    /**
+     * Searches a raw Latin-1 {@code byte[]}, the added indices are reduced by {@code offset}
+     */
+    void indicesOf(byte[] text, int start, int end, int offset, IntList indices, IntList patterns) {
+        int state = 0;
+        for(int i = start; i < end; i ++) {
+            state = this.transitions[state * this.columns + this.latinColumns[text[i] & 0xFF]];
+            if(this.outputs[state] != -1 || this.outputLinks[state] != -1)
+                emit(state, i, offset, indices, patterns);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package de.f.utils;
+
+import java.math.BigInteger;
+
+/**
+ * Writes the text of numbers directly into a {@code char[]} or Latin-1 {@code byte[]} without creating {@link String}s
+ * <p>Integers are written two digits at a time using a table of digit pairs. {@code float} and {@code double} use
+ * the Schubfach algorithm by Raffaello Giulietti and produce the same shortest round-trip text as
+ * {@link Double#toString(double)} and {@link Float#toString(float)}.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+final class Numbers {
+    private Numbers() {}
+
+    /** Maximum length of the text of a {@code double}, e.g. {@code -2.2250738585072014E-308} */
+    static final int MAX_DOUBLE_LENGTH = 24;
+    /** Maximum length of the text of a {@code float}, e.g. {@code -1.17549435E-38} */
+    static final int MAX_FLOAT_LENGTH = 15;
+    /** Maximum precision of {@link #writeFixed(double, int, Object, int)} */
+    static final int MAX_PRECISION = 17;
+
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static {
+        for(int i = 0; i < 100; i ++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * Writes a char into a {@code char[]} or a Latin-1 {@code byte[]}, the text of numbers is always Latin-1
+     */
+    private static void put(Object buf, int index, char c) {
+        if(buf instanceof char[] chars)
+            chars[index] = c;
+        else
+            ((byte[]) buf)[index] = (byte) c;
+    }
+
+    private static char get(Object buf, int index) {
+        if(buf instanceof char[] chars)
+            return chars[index];
+        return (char) (((byte[]) buf)[index] & 0xFF);
+    }
+
+    // ---- integers ----
+
+    /**
+     * @return the amount of chars of the decimal text of the given value
+     */
+    static int stringSize(long x) {
+        int d = 1;
+        if(x >= 0) {
+            d = 0;
+            x = -x;
+        }
+
+        long p = -10;
+        for(int i = 1; i < 19; i ++) {
+            if(x > p)
+                return i + d;
+            p *= 10;
+        }
+        return 19 + d;
+    }
+
+    /**
+     * Writes the decimal text of the given value
+     * @return the amount of chars written
+     */
+    static int writeLong(long value, Object buf, int index) {
+        int length = stringSize(value);
+        int pos = index + length;
+
+        // works on the negative value so Long.MIN_VALUE does not overflow
+        boolean negative = value < 0;
+        long i = negative ? value : -value;
+
+        while(i <= Integer.MIN_VALUE) {
+            long q = i / 100;
+            int r = (int) (q * 100 - i);
+            i = q;
+            put(buf, -- pos, DIGIT_ONES[r]);
+            put(buf, -- pos, DIGIT_TENS[r]);
+        }
+
+        int i2 = (int) i;
+        while(i2 <= -100) {
+            int q = i2 / 100;
+            int r = q * 100 - i2;
+            i2 = q;
+            put(buf, -- pos, DIGIT_ONES[r]);
+            put(buf, -- pos, DIGIT_TENS[r]);
+        }
+
+        if(i2 < -9) {
+            put(buf, -- pos, DIGIT_ONES[-i2]);
+            put(buf, -- pos, DIGIT_TENS[-i2]);
+        } else {
+            put(buf, -- pos, (char) ('0' - i2));
+        }
+
+        if(negative)
+            put(buf, -- pos, '-');
+
+        return length;
+    }
+
+    /**
+     * @return the amount of chars of the unsigned hexadecimal text of the given value
+     */
+    static int hexSize(long value) {
+        return Math.max((Long.SIZE - Long.numberOfLeadingZeros(value) + 3) >> 2, 1);
+    }
+
+    /**
+     * Writes the unsigned lowercase hexadecimal text of the given value, like {@link Long#toHexString(long)}
+     * @return the amount of chars written
+     */
+    static int writeHex(long value, Object buf, int index) {
+        int length = hexSize(value);
+        for(int pos = index + length - 1; pos >= index; pos --) {
+            put(buf, pos, HEX_DIGITS[(int) value & 0xF]);
+            value >>>= 4;
+        }
+        return length;
+    }
+
+    // ---- fixed precision ----
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_PRECISION + 2];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for(int i = 1; i < POWERS_OF_TEN.length; i ++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    /**
+     * @return {@code true} if {@link #writeFixed(double, int, Object, int)} can write the given value
+     */
+    static boolean fitsFixed(double value, int precision) {
+        return !Double.isFinite(value) || Math.abs(value) * POWERS_OF_TEN[precision] < 0x1p53;
+    }
+
+    /**
+     * Writes the given value with exactly {@code precision} fraction digits, rounded half up.
+     * The value must {@link #fitsFixed(double, int) fit}.
+     * @return the amount of chars written
+     */
+    static int writeFixed(double value, int precision, Object buf, int index) {
+        if(!Double.isFinite(value))
+            return writeDouble(value, buf, index);
+
+        int pos = index;
+        if(value < 0 || value == 0 && 1 / value < 0) {
+            put(buf, pos ++, '-');
+            value = -value;
+        }
+
+        // the product is not exact, the rest computed by fma decides the rounding instead
+        double power = POWERS_OF_TEN[precision];
+        long scaled = (long) Math.floor(value * power);
+        double rest = Math.fma(value, power, -scaled);
+        if(rest < 0) {
+            scaled --;
+            rest += 1;
+        } else if(rest >= 1) {
+            scaled ++;
+            rest -= 1;
+        }
+        if(rest >= 0.5)
+            scaled ++;
+
+        long integer = scaled / POWERS_OF_TEN[precision];
+        long fraction = scaled - integer * POWERS_OF_TEN[precision];
+
+        pos += writeLong(integer, buf, pos);
+        if(precision > 0) {
+            put(buf, pos ++, '.');
+            // the leading 1 keeps the zeros in front of the fraction and is overwritten by the '.'
+            writeLong(POWERS_OF_TEN[precision] + fraction, buf, pos - 1);
+            put(buf, pos - 1, '.');
+            pos += precision;
+        }
+
+        return pos - index;
+    }
+
+    // ---- Schubfach ----
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    /**
+     * The 126 bit approximations {@code g = floor(10^-k 2^-r) + 1} of the powers of ten, split into the high bits
+     * {@code g1} at {@code 2 * (k - K_MIN)} and the low 63 bits {@code g0} at {@code 2 * (k - K_MIN) + 1},
+     * where {@code r = flog2pow10(-k) - 125}
+     */
+    private static final class PowersOfTen {
+        private static final long[] G = new long[(K_MAX - K_MIN + 1) << 1];
+
+        static {
+            BigInteger mask = BigInteger.valueOf(MASK_63);
+            for(int k = K_MIN; k <= K_MAX; k ++) {
+                int e = -k;
+                int r = flog2pow10(e) - 125;
+
+                BigInteger g;
+                if(e >= 0)
+                    g = r <= 0 ? BigInteger.TEN.pow(e).shiftLeft(-r) : BigInteger.TEN.pow(e).shiftRight(r);
+                else
+                    g = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(-e));
+                g = g.add(BigInteger.ONE);
+
+                G[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+                G[((k - K_MIN) << 1) + 1] = g.and(mask).longValue();
+            }
+        }
+    }
+
+    /** floor(e log10(2)) */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /** floor(log10(3/4 2^e)) */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /** floor(e log2(10)) */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /** Rounds {@code g cp / 2^127} to odd */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Writes the text of the given {@code double} like {@link Double#toString(double)}
+     * @return the amount of chars written
+     */
+    static int writeDouble(double v, Object buf, int index) {
+        long bits = Double.doubleToRawLongBits(v);
+        long t = bits & (1L << 52) - 1;
+        int bq = (int) (bits >>> 52) & 0x7FF;
+
+        if(bq == 0x7FF)
+            return writeSpecial(t != 0, bits < 0, buf, index);
+
+        int pos = index;
+        if(bits < 0)
+            put(buf, pos ++, '-');
+
+        if(bq != 0) {
+            int mq = 1075 - bq;
+            long c = 1L << 52 | t;
+            if(0 < mq && mq < 53) {
+                long f = c >> mq;
+                if(f << mq == c)
+                    return pos - index + writeDecimal(f, 0, buf, pos);
+            }
+            return pos - index + toDecimal(-mq, c, 0, 1L << 52, -1074, buf, pos);
+        }
+        if(t != 0)
+            return pos - index + (t < 3 ? toDecimal(-1074, 10 * t, -1, 1L << 52, -1074, buf, pos)
+                    : toDecimal(-1074, t, 0, 1L << 52, -1074, buf, pos));
+
+        return pos - index + writeZero(buf, pos);
+    }
+
+    /**
+     * Writes the text of the given {@code float} like {@link Float#toString(float)}
+     * @return the amount of chars written
+     */
+    static int writeFloat(float v, Object buf, int index) {
+        int bits = Float.floatToRawIntBits(v);
+        int t = bits & (1 << 23) - 1;
+        int bq = (bits >>> 23) & 0xFF;
+
+        if(bq == 0xFF)
+            return writeSpecial(t != 0, bits < 0, buf, index);
+
+        int pos = index;
+        if(bits < 0)
+            put(buf, pos ++, '-');
+
+        if(bq != 0) {
+            int mq = 150 - bq;
+            int c = 1 << 23 | t;
+            if(0 < mq && mq < 24) {
+                int f = c >> mq;
+                if(f << mq == c)
+                    return pos - index + writeDecimal(f, 0, buf, pos);
+            }
+            return pos - index + toDecimal(-mq, c, 0, 1L << 23, -149, buf, pos);
+        }
+        if(t != 0)
+            return pos - index + (t < 8 ? toDecimal(-149, 10L * t, -1, 1L << 23, -149, buf, pos)
+                    : toDecimal(-149, t, 0, 1L << 23, -149, buf, pos));
+
+        return pos - index + writeZero(buf, pos);
+    }
+
+    private static int writeSpecial(boolean nan, boolean negative, Object buf, int index) {
+        String s = nan ? "NaN" : negative ? "-Infinity" : "Infinity";
+        for(int i = 0; i < s.length(); i ++)
+            put(buf, index + i, s.charAt(i));
+        return s.length();
+    }
+
+    private static int writeZero(Object buf, int index) {
+        put(buf, index, '0');
+        put(buf, index + 1, '.');
+        put(buf, index + 2, '0');
+        return 3;
+    }
+
+    /**
+     * Computes the shortest decimal {@code f 10^e} rounding to {@code c 2^q} and writes it
+     */
+    private static int toDecimal(int q, long c, int dk, long cMin, int qMin, Object buf, int index) {
+        long out = c & 1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if(c != cMin | q == qMin) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = PowersOfTen.G[(k - K_MIN) << 1];
+        long g0 = PowersOfTen.G[((k - K_MIN) << 1) + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if(s >= 100) {
+            long sp10 = s / 10 * 10;
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if(upin != wpin)
+                return writeDecimal(upin ? sp10 : tp10, k, buf, index);
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if(uin != win)
+            return writeDecimal(uin ? s : t, k + dk, buf, index);
+
+        long cmp = vb - (s + t << 1);
+        return writeDecimal(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk, buf, index);
+    }
+
+    /**
+     * Writes {@code f 10^e} in the format of {@link Double#toString(double)}
+     */
+    private static int writeDecimal(long f, int e, Object buf, int index) {
+        while(f % 10 == 0 && f != 0) {
+            f /= 10;
+            e ++;
+        }
+
+        int digits = stringSize(f);
+        // exponent of the first digit
+        int exponent = digits + e - 1;
+        int pos = index;
+
+        if(exponent >= 0 && exponent < 7) {
+            writeLong(f, buf, pos);
+            if(digits <= exponent + 1) {
+                pos += digits;
+                for(int i = digits; i <= exponent; i ++)
+                    put(buf, pos ++, '0');
+                put(buf, pos ++, '.');
+                put(buf, pos ++, '0');
+            } else {
+                int point = pos + exponent + 1;
+                System.arraycopy(buf, point, buf, point + 1, digits - exponent - 1);
+                put(buf, point, '.');
+                pos += digits + 1;
+            }
+        } else if(exponent < 0 && exponent >= -3) {
+            put(buf, pos ++, '0');
+            put(buf, pos ++, '.');
+            for(int i = -1; i > exponent; i --)
+                put(buf, pos ++, '0');
+            pos += writeLong(f, buf, pos);
+        } else {
+            writeLong(f, buf, pos + 1);
+            put(buf, pos, get(buf, pos + 1));
+            put(buf, pos + 1, '.');
+            if(digits == 1) {
+                put(buf, pos + 2, '0');
+                pos += 3;
+            } else {
+                pos += digits + 1;
+            }
+            put(buf, pos ++, 'E');
+            pos += writeLong(exponent, buf, pos);
+        }
+
+        return pos - index;
+    }
+}
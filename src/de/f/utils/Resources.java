@@ -1,17 +1,405 @@
 package de.f.utils;
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+/**
+ * Loads classpath resources relative to this class
+ *
+ * <p>Loaded content is kept in a bounded {@link DoubleMapCache}, so a resource read on every request is only read
+ * and decoded once. The raw content is cached as a read-only {@link ByteBuffer}: resources in the file system larger
+ * than {@value MAP_THRESHOLD} bytes are memory-mapped, all others are read once into a heap buffer. Decoded
+ * {@link String}s are cached per {@link Charset}. Concurrent first reads of the same resource load it only once.</p>
+ *
+ * <p>{@link #index()} lists all resources, read from the manifest {@value INDEX_FILE} if it exists, which
+ * {@link #writeIndex(Path, Path)} generates at build time, otherwise by scanning the class path once.
+ * {@link #preload(String, Charset)} loads all resources matching a glob in parallel on virtual threads, so a
+ * startup does not wait for hundreds of serial reads.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
 public class Resources {
+    /** File resources of at least this size are memory-mapped instead of read */
+    private static final int MAP_THRESHOLD = 1 << 16;
+    /** Weight of a mapped buffer, which does not use the heap */
+    private static final int MAPPED_WEIGHT = 64;
+    private static final long DEFAULT_CACHE_SIZE = 64L << 20;
+    /** Manifest listing one resource path per line */
+    private static final String INDEX_FILE = "/resources.index";
+
+    /** Raw content by path with a {@code null} {@link Charset}, decoded content by path and {@link Charset} */
+    private static volatile DoubleMapCache<String, Charset, Object> cache = newCache(DEFAULT_CACHE_SIZE);
+    /** All charsets content was decoded with */
+    private static final Set<Charset> CHARSETS = ConcurrentHashMap.newKeySet();
+    /** Location of every resource by path, {@code null} if it is looked up by the class loader */
+    private static volatile Map<String, URL> index;
+
+    /**
+     * The time it took to load one resource in {@link #preload(String, Charset)}
+     */
+    public static final class Timing {
+        private final String path;
+        private final long nanos;
+        private final long size;
+        private final IOException error;
+
+        private Timing(String path, long nanos, long size, IOException error) {
+            this.path = path;
+            this.nanos = nanos;
+            this.size = size;
+            this.error = error;
+        }
+
+        public String getPath() {
+            return this.path;
+        }
+
+        /**
+         * @return the time it took to read and decode the resource in nanoseconds
+         */
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * @return the size of the resource in bytes, {@code -1} if it failed
+         */
+        public long getSize() {
+            return this.size;
+        }
+
+        /**
+         * @return the error which prevented loading the resource or {@code null}
+         */
+        public IOException getError() {
+            return this.error;
+        }
+
+        @Override
+        public String toString() {
+            return this.path + ": " + (this.error != null ? this.error : this.size + " bytes in " + this.nanos / 1000 + "us");
+        }
+    }
+
+    private static DoubleMapCache<String, Charset, Object> newCache(long maximumBytes) {
+        return new DoubleMapCache.Builder<String, Charset, Object>()
+                .maximumWeight(maximumBytes, (path, charset, v) -> v instanceof String s ? s.length() * 2
+                        : ((ByteBuffer) v).isDirect() ? MAPPED_WEIGHT : ((ByteBuffer) v).capacity())
+                .build();
+    }
+
+    /**
+     * Reads the resource with the default charset
+     * @param path Path of the resource
+     * @return the content or {@code null} if it can not be read
+     * @see #getFileAsString(String, Charset)
+     */
     public static String getFileAsString(String path) {
-        try(InputStream in = Resources.class.getResourceAsStream(path)) {
-            byte[] bytes = in.readAllBytes();
-            return new String(bytes);
-        } catch (IOException | NullPointerException e) {
+        try {
+            return getFileAsString(path, Charset.defaultCharset());
+        } catch (IOException e) {
             e.printStackTrace();
         }
 
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads and decodes the resource, the result is cached
+     * @param path Path of the resource
+     * @param charset {@link Charset} of the resource
+     * @return the content
+     * @throws IOException If the resource does not exist or can not be read
+     */
+    public static String getFileAsString(String path, Charset charset) throws IOException {
+        CHARSETS.add(charset);
+        return (String) load(path, charset);
+    }
+
+    /**
+     * Reads the resource, the content is cached
+     * @param path Path of the resource
+     * @return a read-only {@link ByteBuffer} of the content, mapped for large files in the file system
+     * @throws IOException If the resource does not exist or can not be read
+     */
+    public static ByteBuffer getFileAsByteBuffer(String path) throws IOException {
+        return ((ByteBuffer) load(path, null)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Reads the resource, the content is cached
+     * @param path Path of the resource
+     * @return a copy of the content
+     * @throws IOException If the resource does not exist or can not be read
+     */
+    public static byte[] getFileAsBytes(String path) throws IOException {
+        ByteBuffer buffer = getFileAsByteBuffer(path);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Removes the resource from the cache, so it is read again on its next use
+     * @param path Path of the resource
+     */
+    public static void invalidate(String path) {
+        path = absolute(path);
+        DoubleMapCache<String, Charset, Object> cache = Resources.cache;
+        cache.remove(path, null);
+        for(Charset charset: CHARSETS)
+            cache.remove(path, charset);
+    }
+
+    /**
+     * Replaces the cache with an empty one of the given size
+     * @param maximumBytes Approximate maximum heap size of the cached content
+     */
+    public static void setCacheSize(long maximumBytes) {
+        cache = newCache(maximumBytes);
+    }
+
+    /**
+     * @return the counters of the cache
+     */
+    public static DoubleMapCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Gets the paths of all resources. The index is built once from the manifest {@value INDEX_FILE} or, if
+     * there is none, by scanning all directories and jars of the class path.
+     * @return the sorted, absolute paths of all resources, class files excluded
+     * @throws IOException If the manifest or the class path can not be read
+     */
+    public static Set<String> index() throws IOException {
+        return indexMap().keySet();
+    }
+
+    private static Map<String, URL> indexMap() throws IOException {
+        Map<String, URL> index = Resources.index;
+        if(index == null) {
+            synchronized(Resources.class) {
+                index = Resources.index;
+                if(index == null)
+                    Resources.index = index = Collections.unmodifiableMap(buildIndex());
+            }
+        }
+        return index;
+    }
+
+    private static Map<String, URL> buildIndex() throws IOException {
+        Map<String, URL> index = new TreeMap<>();
+
+        URL manifest = Resources.class.getResource(INDEX_FILE);
+        if(manifest != null) {
+            try(BufferedReader reader = new BufferedReader(new InputStreamReader(manifest.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while((line = reader.readLine()) != null)
+                    if(!line.isBlank())
+                        index.put(line.strip(), null);
+            }
+            return index;
+        }
+
+        // earlier class path entries shadow later ones, like in the class loader
+        for(String entry: System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if(entry.isEmpty())
+                continue;
+
+            Path root = Path.of(entry).toAbsolutePath();
+            if(Files.isDirectory(root)) {
+                for(Path file: listFiles(root))
+                    index.putIfAbsent(resourcePath(root, file), file.toUri().toURL());
+            } else if(Files.isRegularFile(root) && entry.endsWith(".jar")) {
+                try(FileSystem jar = FileSystems.newFileSystem(root)) {
+                    Path jarRoot = jar.getPath("/");
+                    // the URI of the zip file system encodes spaces, '%' and '#' in entry names
+                    for(Path file: listFiles(jarRoot))
+                        index.putIfAbsent(resourcePath(jarRoot, file), file.toUri().toURL());
+                }
+            }
+        }
+        return index;
+    }
+
+    private static List<Path> listFiles(Path root) throws IOException {
+        try(Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".class"))
+                    .toList();
+        }
+    }
+
+    private static String resourcePath(Path root, Path file) {
+        StringBuilder sb = new StringBuilder();
+        for(Path name: root.relativize(file))
+            sb.append('/').append(name.toString());
+        return sb.toString();
+    }
+
+    /**
+     * Writes the manifest of all resources below the given directory, to be packaged as {@value INDEX_FILE} so
+     * {@link #index()} does not scan the class path
+     * @param root Root directory of the resources
+     * @param out File the manifest is written to
+     * @throws IOException If the directory can not be read or the manifest not written
+     */
+    public static void writeIndex(Path root, Path out) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for(Path file: listFiles(root))
+            paths.add(resourcePath(root, file));
+        paths.sort(Comparator.naturalOrder());
+        Files.write(out, paths, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Loads all resources of the {@link #index()} matching the glob in parallel on virtual threads into the cache.
+     * In the glob {@code *} and {@code ?} match within one directory, {@code **} matches across directories.
+     * @param glob Pattern of the absolute resource paths, for example {@code /templates/**.html}
+     * @param charset {@link Charset} to decode the resources with, {@code null} to only cache their bytes
+     * @return the timing of every matched resource, sorted by path
+     * @throws IOException If the index can not be built
+     */
+    public static List<Timing> preload(String glob, Charset charset) throws IOException {
+        Pattern pattern = globToPattern(glob);
+        List<String> paths = new ArrayList<>();
+        for(String path: index())
+            if(pattern.matcher(path).matches())
+                paths.add(path);
+        if(charset != null)
+            CHARSETS.add(charset);
+
+        List<Future<Timing>> futures = new ArrayList<>(paths.size());
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(String path: paths)
+                futures.add(executor.submit(() -> timeLoad(path, charset)));
+        }
+
+        List<Timing> timings = new ArrayList<>(futures.size());
+        for(Future<Timing> future: futures)
+            timings.add(future.resultNow());
+        return timings;
+    }
+
+    private static Timing timeLoad(String path, Charset charset) {
+        long start = System.nanoTime();
+        try {
+            long size = ((ByteBuffer) load(path, null)).capacity();
+            if(charset != null)
+                load(path, charset);
+            return new Timing(path, System.nanoTime() - start, size, null);
+        } catch (IOException e) {
+            return new Timing(path, System.nanoTime() - start, -1, e);
+        }
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for(int i = 0; i < glob.length(); i ++) {
+            char c = glob.charAt(i);
+            if(c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i ++;
+            } else if(c == '*') {
+                regex.append("[^/]*");
+            } else if(c == '?') {
+                regex.append("[^/]");
+            } else {
+                if("\\.[]{}()+-^$|".indexOf(c) >= 0)
+                    regex.append('\\');
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Resolves a relative path against the package of this class like {@link Class#getResource(String)}, so both
+     * forms of a path share one cache entry with the paths of the {@link #index()}
+     */
+    private static String absolute(String path) {
+        if(path.startsWith("/"))
+            return path;
+        return "/" + Resources.class.getPackageName().replace('.', '/') + "/" + path;
+    }
+
+    private static Object load(String path, Charset charset) throws IOException {
+        try {
+            return cache.get(absolute(path), charset, (p, c) -> c == null ? read(p) : decode(p, c));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String decode(String path, Charset charset) {
+        ByteBuffer buffer;
+        try {
+            buffer = (ByteBuffer) load(path, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if(buffer.hasArray())
+            return new String(buffer.array(), buffer.arrayOffset(), buffer.capacity(), charset);
+        return charset.decode(buffer.duplicate()).toString();
+    }
+
+    private static ByteBuffer read(String path) {
+        try {
+            Map<String, URL> index = Resources.index;
+            URL url = index != null ? index.get(path) : null;
+            if(url == null)
+                url = Resources.class.getResource(path);
+            if(url == null)
+                throw new NoSuchFileException(path, null, "Resource does not exist");
+
+            if("file".equals(url.getProtocol())) {
+                Path file = Path.of(url.toURI());
+                try(FileChannel channel = FileChannel.open(file)) {
+                    long size = channel.size();
+                    if(size >= MAP_THRESHOLD)
+                        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            }
+
+            try(InputStream in = url.openStream()) {
+                return ByteBuffer.wrap(in.readAllBytes());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new UncheckedIOException(new IOException("Invalid resource path\n\tPath: " + path, e));
+        }
+    }
+}
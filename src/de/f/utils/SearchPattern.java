@@ -0,0 +1,235 @@
+package de.f.utils;
+
+/**
+ * A precompiled substring pattern using the Boyer-Moore-Horspool algorithm
+ * <p>The bad character table is hashed on the low byte of each {@code char}, colliding chars keep the smallest
+ * shift. A pattern can be compiled once and reused for any number of searches.</p>
+ * @see MultiSearchPattern
+ * @see StringBuilder#indexOf(SearchPattern, int, int)
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class SearchPattern {
+    private final char[] pattern;
+    private final int[] shifts;
+    /** {@code true} if the pattern only contains Latin-1 chars and can match in Latin-1 text */
+    private final boolean latin;
+
+    private static final int TABLE_SIZE = 1 << 8;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private SearchPattern(char[] pattern) {
+        this.pattern = pattern;
+        this.shifts = new int[TABLE_SIZE];
+
+        boolean latin = true;
+        for(char c: pattern)
+            latin &= c <= 0xFF;
+        this.latin = latin;
+
+        int m = pattern.length;
+        for(int i = 0; i < TABLE_SIZE; i ++)
+            this.shifts[i] = Math.max(m, 1);
+        for(int i = 0; i < m - 1; i ++)
+            this.shifts[pattern[i] & TABLE_MASK] = m - 1 - i;
+    }
+
+    /**
+     * Compiles the given {@link CharSequence} into a {@code SearchPattern}
+     * @param cs The substring to search for
+     * @return {@link SearchPattern}
+     */
+    public static SearchPattern compile(CharSequence cs) {
+        char[] pattern = new char[cs.length()];
+        if(cs instanceof String s)
+            s.getChars(0, pattern.length, pattern, 0);
+        else
+            for(int i = 0; i < pattern.length; i ++)
+                pattern[i] = cs.charAt(i);
+
+        return new SearchPattern(pattern);
+    }
+
+    /**
+     * @return the length of the pattern
+     */
+    public int length() {
+        return this.pattern.length;
+    }
+
+    /**
+     * Gets the first index of the pattern in the given {@link CharSequence}
+     * @param cs The text to search in
+     * @param start The start index
+     * @param end The end index
+     * @return The first occurrence of the pattern or {@code -1}
+     */
+    public int indexOf(CharSequence cs, int start, int end) {
+        if(cs instanceof StringBuilder sb)
+            return sb.indexOf(this, start, end);
+
+        int m = this.pattern.length;
+        if(m == 0)
+            return start;
+
+        char last = this.pattern[m - 1];
+        int i = start;
+        while(i <= end - m) {
+            char c = cs.charAt(i + m - 1);
+            if(c == last && matches(cs, i))
+                return i;
+            i += this.shifts[c & TABLE_MASK];
+        }
+
+        return -1;
+    }
+
+    /**
+     * Adds all indices of the pattern in the given {@link CharSequence} to the given {@link IntList}
+     * @param cs The text to search in
+     * @param start The start index
+     * @param end The end index
+     * @param indices The list the indices are added to
+     * @return {@code indices}
+     */
+    public IntList indicesOf(CharSequence cs, int start, int end, IntList indices) {
+        if(cs instanceof StringBuilder sb)
+            return sb.indicesOf(this, start, end, indices);
+
+        int m = this.pattern.length;
+        if(m == 0) {
+            for(int i = start; i < end; i ++)
+                indices.add(i);
+            return indices;
+        }
+
+        char last = this.pattern[m - 1];
+        int i = start;
+        while(i <= end - m) {
+            char c = cs.charAt(i + m - 1);
+            if(c == last && matches(cs, i))
+                indices.add(i);
+            i += this.shifts[c & TABLE_MASK];
+        }
+
+        return indices;
+    }
+
+    private boolean matches(CharSequence cs, int index) {
+        for(int i = 0; i < this.pattern.length - 1; i ++)
+            if(cs.charAt(index + i) != this.pattern[i])
+                return false;
+        return true;
+    }
+
+    // ---- char[] ----
+
+    /**
+     * Searches a raw {@code char[]}, the returned index is reduced by {@code offset}
+     */
+    int indexOf(char[] text, int start, int end, int offset) {
+        int m = this.pattern.length;
+        if(m == 0)
+            return start - offset;
+
+        char last = this.pattern[m - 1];
+        int i = start;
+        while(i <= end - m) {
+            char c = text[i + m - 1];
+            if(c == last && matches(text, i))
+                return i - offset;
+            i += this.shifts[c & TABLE_MASK];
+        }
+
+        return -1;
+    }
+
+    /**
+     * Searches a raw {@code char[]}, the added indices are reduced by {@code offset}
+     */
+    void indicesOf(char[] text, int start, int end, int offset, IntList indices) {
+        int m = this.pattern.length;
+        if(m == 0) {
+            for(int i = start; i < end; i ++)
+                indices.add(i - offset);
+            return;
+        }
+
+        char last = this.pattern[m - 1];
+        int i = start;
+        while(i <= end - m) {
+            char c = text[i + m - 1];
+            if(c == last && matches(text, i))
+                indices.add(i - offset);
+            i += this.shifts[c & TABLE_MASK];
+        }
+    }
+
+    private boolean matches(char[] text, int index) {
+        for(int i = 0; i < this.pattern.length - 1; i ++)
+            if(text[index + i] != this.pattern[i])
+                return false;
+        return true;
+    }
+
+    // ---- byte[] ----
+
+    /**
+     * Searches a raw Latin-1 {@code byte[]}, the returned index is reduced by {@code offset}
+     */
+    int indexOf(byte[] text, int start, int end, int offset) {
+        int m = this.pattern.length;
+        if(m == 0)
+            return start - offset;
+        if(!this.latin)
+            return -1;
+
+        char last = this.pattern[m - 1];
+        int i = start;
+        while(i <= end - m) {
+            char c = (char) (text[i + m - 1] & 0xFF);
+            if(c == last && matches(text, i))
+                return i - offset;
+            i += this.shifts[c];
+        }
+
+        return -1;
+    }
+
+    /**
+     * Searches a raw Latin-1 {@code byte[]}, the added indices are reduced by {@code offset}
+     */
+    void indicesOf(byte[] text, int start, int end, int offset, IntList indices) {
+        int m = this.pattern.length;
+        if(m == 0) {
+            for(int i = start; i < end; i ++)
+                indices.add(i - offset);
+            return;
+        }
+        if(!this.latin)
+            return;
+
+        char last = this.pattern[m - 1];
+        int i = start;
+        while(i <= end - m) {
+            char c = (char) (text[i + m - 1] & 0xFF);
+            if(c == last && matches(text, i))
+                indices.add(i - offset);
+            i += this.shifts[c];
+        }
+    }
+
+    private boolean matches(byte[] text, int index) {
+        for(int i = 0; i < this.pattern.length - 1; i ++)
+            if((text[index + i] & 0xFF) != this.pattern[i])
+                return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.pattern);
+    }
+}
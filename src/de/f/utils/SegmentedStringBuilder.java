@@ -0,0 +1,455 @@
+package de.f.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An append-only alternative to {@link StringBuilder} for content beyond the size of a single {@code char[]}
+ *
+ * <p>The content is stored in a chain of fixed-size segments indexed by {@code long}. Growing only adds a new
+ * segment, the existing content is never copied. Full segments are sealed and can be spilled to a temporary file,
+ * they are then read through a memory mapping instead of the heap.</p>
+ *
+ * <p>The {@link CharSequence} methods work as long as the length fits into an {@code int}.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class SegmentedStringBuilder implements CharSequence, Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+    /** A spilled segment takes two bytes per char and has to fit into one mapping of at most 2^31 - 1 bytes */
+    private static final int MAX_SEGMENT_SIZE = 1 << 29;
+    private static final int CHUNK_SIZE = 1 << 13;
+
+    private final int segmentShift;
+    private final int segmentSize;
+
+    /** Sealed segments, heap or memory mapped */
+    private CharBuffer[] segments = new CharBuffer[1 << 4];
+    private int sealed;
+    /** Amount of sealed segments at the start which are spilled to {@link #file} */
+    private int spilled;
+
+    private char[] tail;
+    private int tailSize;
+
+    private long spillThreshold = Long.MAX_VALUE;
+    private Path path;
+    private FileChannel file;
+
+    private final char[] scratch = new char[Numbers.MAX_DOUBLE_LENGTH];
+
+    /**
+     * Generates a new {@code SegmentedStringBuilder} with segments of {@value DEFAULT_SEGMENT_SIZE} chars
+     */
+    public SegmentedStringBuilder() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Generates a new {@code SegmentedStringBuilder}
+     * @param segmentSize Size of each segment in chars, rounded up to a power of two, at most {@value MAX_SEGMENT_SIZE}
+     */
+    public SegmentedStringBuilder(int segmentSize) {
+        if(segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE)
+            throw new IllegalArgumentException("Segment size must be between 1 and 2^29\n\tSegment size: " + segmentSize);
+
+        this.segmentShift = 32 - Integer.numberOfLeadingZeros(segmentSize - 1);
+        this.segmentSize = 1 << this.segmentShift;
+        this.tail = new char[this.segmentSize];
+    }
+
+    /**
+     * Spills sealed segments to a temporary file as soon as more than the given amount of chars is on the heap
+     * @param chars Maximum amount of sealed chars kept on the heap
+     * @see #spill()
+     */
+    public void setSpillThreshold(long chars) {
+        this.spillThreshold = chars;
+    }
+
+    /**
+     * @return the length as a {@code long}
+     */
+    public long longLength() {
+        return ((long) this.sealed << this.segmentShift) + this.tailSize;
+    }
+
+    /**
+     * @return the length
+     * @throws IllegalStateException If the length does not fit into an {@code int}
+     */
+    @Override
+    public int length() {
+        return toInt(longLength());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.sealed == 0 && this.tailSize == 0;
+    }
+
+    private static int toInt(long value) {
+        if(value > Integer.MAX_VALUE)
+            throw new IllegalStateException("Length exceeds the int range\n\tLength: " + value);
+        return (int) value;
+    }
+
+    /**
+     * @param index the index of the {@code char} value to be returned
+     * @return The character at the given index
+     */
+    public char charAt(long index) {
+        long length = longLength();
+        if(index >= length)
+            throw new StringIndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Length: " + length);
+        if(index < 0)
+            throw new StringIndexOutOfBoundsException("Index must not be negative\n\tIndex: " + index);
+
+        int segment = (int) (index >>> this.segmentShift);
+        int offset = (int) index & this.segmentSize - 1;
+        return segment < this.sealed ? this.segments[segment].get(offset) : this.tail[offset];
+    }
+
+    @Override
+    public char charAt(int index) {
+        return charAt((long) index);
+    }
+
+    /**
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return the content between the given indices as a {@link String}
+     */
+    public String substring(long start, long end) {
+        long length = longLength();
+        if(start > end)
+            throw new IllegalArgumentException("End must not be less then Start\n\tStart: " + start + ", End: " + end);
+        if(end > length)
+            throw new StringIndexOutOfBoundsException("End is out of bounds\n\tEnd: " + end + ", Length: " + length);
+        if(start < 0)
+            throw new StringIndexOutOfBoundsException("Start must not be negative\n\tStart: " + start);
+
+        char[] chars = new char[toInt(end - start)];
+        int n = 0;
+        for(long i = start; i < end; ) {
+            int segment = (int) (i >>> this.segmentShift);
+            int offset = (int) i & this.segmentSize - 1;
+            int count = (int) Math.min(this.segmentSize - offset, end - i);
+            if(segment < this.sealed)
+                this.segments[segment].get(offset, chars, n, count);
+            else
+                System.arraycopy(this.tail, offset, chars, n, count);
+            n += count;
+            i += count;
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length());
+    }
+
+    // ---- append() ----
+
+    private void seal() {
+        if(this.sealed == this.segments.length)
+            this.segments = Arrays.copyOf(this.segments, this.segments.length << 1);
+        this.segments[this.sealed ++] = CharBuffer.wrap(this.tail);
+
+        this.tail = new char[this.segmentSize];
+        this.tailSize = 0;
+
+        if((long) (this.sealed - this.spilled) << this.segmentShift > this.spillThreshold) {
+            try {
+                spill();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Appends the given {@code char} to the end of the {@code SegmentedStringBuilder}
+     * @param c {@code char}
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(char c) {
+        if(this.tailSize == this.segmentSize)
+            seal();
+        this.tail[this.tailSize ++] = c;
+        return this;
+    }
+
+    /**
+     * Appends a part of the given {@code char[]} to the end of the {@code SegmentedStringBuilder}
+     * @param chars Source array
+     * @param offset Index of the first {@code char}
+     * @param length Amount of chars
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(char[] chars, int offset, int length) {
+        while(length > 0) {
+            if(this.tailSize == this.segmentSize)
+                seal();
+            int count = Math.min(length, this.segmentSize - this.tailSize);
+            System.arraycopy(chars, offset, this.tail, this.tailSize, count);
+            this.tailSize += count;
+            offset += count;
+            length -= count;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a part of the given {@link CharSequence} to the end of the {@code SegmentedStringBuilder}
+     * @param cs Value
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(CharSequence cs, int start, int end) {
+        while(start < end) {
+            if(this.tailSize == this.segmentSize)
+                seal();
+            int count = Math.min(end - start, this.segmentSize - this.tailSize);
+            if(cs instanceof String s)
+                s.getChars(start, start + count, this.tail, this.tailSize);
+            else
+                for(int i = 0; i < count; i ++)
+                    this.tail[this.tailSize + i] = cs.charAt(start + i);
+            this.tailSize += count;
+            start += count;
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given {@link CharSequence} to the end of the {@code SegmentedStringBuilder}
+     * @param cs Value
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(CharSequence cs) {
+        return append(cs, 0, cs.length());
+    }
+
+    /**
+     * Appends the {@link String} of the given value to the end of the {@code SegmentedStringBuilder}
+     * @param o Value
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(Object o) {
+        return append(String.valueOf(o));
+    }
+
+    /**
+     * Appends the {@link String} of the given value to the end of the {@code SegmentedStringBuilder}
+     * @param o Value
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(long o) {
+        return append(this.scratch, 0, Numbers.writeLong(o, this.scratch, 0));
+    }
+
+    /**
+     * Appends the {@link String} of the given value to the end of the {@code SegmentedStringBuilder}
+     * @param o Value
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(float o) {
+        return append(this.scratch, 0, Numbers.writeFloat(o, this.scratch, 0));
+    }
+
+    /**
+     * Appends the {@link String} of the given value to the end of the {@code SegmentedStringBuilder}
+     * @param o Value
+     * @return {@code this}
+     */
+    public SegmentedStringBuilder append(double o) {
+        return append(this.scratch, 0, Numbers.writeDouble(o, this.scratch, 0));
+    }
+
+    // ---- spill() ----
+
+    /**
+     * Moves all sealed segments still on the heap into a temporary file and maps them back into memory
+     * @throws IOException If the temporary file can not be written
+     */
+    public void spill() throws IOException {
+        if(this.spilled == this.sealed)
+            return;
+
+        if(this.file == null) {
+            this.path = Files.createTempFile("segmented", ".chars");
+            this.file = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        long bytes = (long) this.segmentSize << 1;
+        for(; this.spilled < this.sealed; this.spilled ++) {
+            MappedByteBuffer mapped = this.file.map(FileChannel.MapMode.READ_WRITE, this.spilled * bytes, bytes);
+            CharBuffer segment = this.segments[this.spilled];
+            segment.clear();
+            mapped.asCharBuffer().put(segment);
+            this.segments[this.spilled] = mapped.asCharBuffer().asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * @return the amount of chars stored in the temporary file
+     */
+    public long getSpilledLength() {
+        return (long) this.spilled << this.segmentShift;
+    }
+
+    /**
+     * Deletes the temporary file, the {@code SegmentedStringBuilder} must not be used afterwards
+     * @throws IOException If the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.segments = new CharBuffer[0];
+        this.sealed = this.spilled = 0;
+        this.tailSize = 0;
+
+        if(this.file != null) {
+            this.file.close();
+            Files.deleteIfExists(this.path);
+            this.file = null;
+        }
+    }
+
+    // ---- iteration ----
+
+    /**
+     * @param index Index of the first {@code char}
+     * @return a {@link Cursor} reading the content sequentially from the given index
+     */
+    public Cursor cursor(long index) {
+        return new Cursor(index);
+    }
+
+    /**
+     * Reads the content of a {@link SegmentedStringBuilder} sequentially, segment by segment
+     */
+    public class Cursor {
+        private long index;
+        private int segment;
+        private int offset;
+
+        private Cursor(long index) {
+            if(index > longLength() || index < 0)
+                throw new StringIndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Length: " + longLength());
+
+            this.index = index;
+            this.segment = (int) (index >>> segmentShift);
+            this.offset = (int) index & segmentSize - 1;
+        }
+
+        /**
+         * @return {@code true} if there is a next {@code char}
+         */
+        public boolean hasNext() {
+            return this.index < longLength();
+        }
+
+        /**
+         * @return The next {@code char}
+         */
+        public char next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            char c = this.segment < sealed ? segments[this.segment].get(this.offset) : tail[this.offset];
+            this.index ++;
+            if(++ this.offset == segmentSize) {
+                this.offset = 0;
+                this.segment ++;
+            }
+            return c;
+        }
+
+        /**
+         * @return The index of the next {@code char}
+         */
+        public long index() {
+            return this.index;
+        }
+    }
+
+    // ---- writeTo() ----
+
+    /**
+     * Encodes the content and writes it to the given blocking {@link WritableByteChannel}
+     * @param channel The channel to write to
+     * @param charset The {@link Charset} to encode with
+     * @return The amount of bytes written
+     * @throws IOException If the channel throws one
+     */
+    public long writeTo(WritableByteChannel channel, Charset charset) throws IOException {
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        // chars are copied through a small window so a surrogate pair can span two segments
+        CharBuffer in = CharBuffer.allocate(CHUNK_SIZE);
+        long length = longLength();
+        long position = 0;
+        long written = 0;
+
+        boolean last;
+        do {
+            while(in.hasRemaining() && position < length) {
+                int segment = (int) (position >>> this.segmentShift);
+                int offset = (int) position & this.segmentSize - 1;
+                int count = (int) Math.min(Math.min(in.remaining(), this.segmentSize - offset), length - position);
+                if(segment < this.sealed)
+                    in.put(this.segments[segment].duplicate().limit(offset + count).position(offset));
+                else
+                    in.put(this.tail, offset, count);
+                position += count;
+            }
+            in.flip();
+
+            last = position == length;
+            while(encoder.encode(in, chunk, last).isOverflow())
+                written += drain(channel, chunk);
+            in.compact();
+        } while(!last);
+
+        while(encoder.flush(chunk).isOverflow())
+            written += drain(channel, chunk);
+        written += drain(channel, chunk);
+
+        return written;
+    }
+
+    private static long drain(WritableByteChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        long written = 0;
+        while(chunk.hasRemaining())
+            written += channel.write(chunk);
+        chunk.clear();
+        return written;
+    }
+}
@@ -1,19 +1,52 @@
 package de.f.utils;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 
 /**
  * An alternative to {@link java.lang.StringBuilder} containing methods like {@code add(int, *)} and {@link #clear()}
  *
+ * <p>The content is stored in a gap buffer: the unused capacity is kept as a gap at the position of the last edit,
+ * so repeated {@code add(int, *)} and {@code remove(*)} calls near the same index only move the gap instead of
+ * shifting the whole tail. The gap is moved to the end whenever contiguous data is needed.</p>
+ *
+ * <p>A compact {@code StringBuilder} stores its content as Latin-1 {@code byte[]}, using half the memory. It inflates
+ * to a {@code char[]} once a {@code char} above {@code 0xFF} is added.</p>
+ *
+ * <p>{@link #view(int, int)} returns a range of the {@code StringBuilder} without copying it, {@link #snapshot()}
+ * returns a copy sharing the backing array until either of them is changed.</p>
+ *
  * @author Finlay
  * @since 1.0
  * @version 1.0
  */
 public class StringBuilder implements CharSequence {
     private char[] values;
+    /** Latin-1 content of a compact {@code StringBuilder}, {@link #values} is {@code null} while this is set */
+    private byte[] latin;
     private int size;
-    
+    /** Start of the gap, the gap spans {@code capacity() - size} chars */
+    private int gap;
+    /** {@code true} if the backing array may be used by a snapshot and has to be copied before it is changed */
+    private boolean shared;
+    /** Amount of changes to the content, used to invalidate {@link View}s and the {@link SuffixIndex} */
+    private int modCount;
+    /** Cached index of {@link #index()} */
+    private SuffixIndex index;
+
     private static final int DEFAULT_SIZE = 1 << 4;
 
     /**
@@ -22,6 +55,7 @@ public class StringBuilder implements CharSequence {
     public StringBuilder() {
         this.values = new char[DEFAULT_SIZE];
         this.size = 0;
+        this.gap = 0;
     }
 
     /**
@@ -31,6 +65,21 @@ public class StringBuilder implements CharSequence {
     public StringBuilder(int startCapacity) {
         this.values = new char[startCapacity];
         this.size = 0;
+        this.gap = 0;
+    }
+
+    /**
+     * Generates a new {@code StringBuilder} with the given starting capacity
+     * @param startCapacity Starting capacity of the {@code StringBuilder}
+     * @param compact {@code true} to store the content as Latin-1 until a {@code char} above {@code 0xFF} is added
+     */
+    public StringBuilder(int startCapacity, boolean compact) {
+        if(compact)
+            this.latin = new byte[startCapacity];
+        else
+            this.values = new char[startCapacity];
+        this.size = 0;
+        this.gap = 0;
     }
 
     /**
@@ -40,16 +89,56 @@ public class StringBuilder implements CharSequence {
     public StringBuilder(CharSequence cs) {
         this.values = new char[Math.max(cs.length(), DEFAULT_SIZE)];
         this.size = cs.length();
+        this.gap = this.size;
         for(int i = 0; i < cs.length(); i ++)
             this.values[i] = cs.charAt(i);
     }
 
+    /**
+     * Generates a new {@code StringBuilder} sharing the backing array of the given one
+     * @see #snapshot()
+     */
+    private StringBuilder(StringBuilder source) {
+        this.values = source.values;
+        this.latin = source.latin;
+        this.size = source.size;
+        this.gap = source.gap;
+        this.shared = true;
+    }
+
     /**
      * Clears the {@code StringBuilder} and sets the size to 0
+     * @see #reset()
      */
     public void clear() {
-        this.values = new char[DEFAULT_SIZE];
+        if(this.latin != null)
+            this.latin = new byte[DEFAULT_SIZE];
+        else
+            this.values = new char[DEFAULT_SIZE];
         this.size = 0;
+        this.gap = 0;
+        this.shared = false;
+        this.modCount ++;
+        this.index = null;
+    }
+
+    /**
+     * Clears the {@code StringBuilder} like {@link #clear()} but keeps the backing array and its capacity.
+     * A backing array shared with a snapshot is replaced by a new one of the same capacity.
+     * @see StringBuilderPool
+     */
+    public void reset() {
+        if(this.shared) {
+            if(this.latin != null)
+                this.latin = new byte[this.latin.length];
+            else
+                this.values = new char[this.values.length];
+            this.shared = false;
+        }
+        this.size = 0;
+        this.gap = 0;
+        this.modCount ++;
+        this.index = null;
     }
 
     /**
@@ -67,13 +156,18 @@ public class StringBuilder implements CharSequence {
      */
     @Override
     public char charAt(int index) {
-        return this.values[index];
+        if(index >= this.size)
+            throw new StringIndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Length: " + this.size);
+        if(index < 0)
+            throw new StringIndexOutOfBoundsException("Index must not be negative\n\tIndex: " + index);
+
+        return raw(rawIndex(index));
     }
 
     private void checkSubSeqIndices(int start, int end) throws StringIndexOutOfBoundsException, IllegalArgumentException {
-        if(start >= end)
-            throw new IllegalArgumentException("End must be greater then Start\n\tStart: " + start + ", End: " + end);
-        if(end >= this.size)
+        if(start > end)
+            throw new IllegalArgumentException("End must not be less then Start\n\tStart: " + start + ", End: " + end);
+        if(end > this.size)
             throw new StringIndexOutOfBoundsException("End is out of bounds\n\tEnd: " + end + ", Length: " + this.size);
         if(start < 0)
             throw new StringIndexOutOfBoundsException("Start must not be negative\n\tStart: " + start);
@@ -84,14 +178,13 @@ public class StringBuilder implements CharSequence {
      * @param end     the end index, exclusive
      *
      * @return a {@link CharSequence} of the {@code StringBuilder}
+     * @see #view(int, int)
      */
     @Override
     public CharSequence subSequence(int start, int end) {
         checkSubSeqIndices(start, end);
 
-        char[] seqChars = new char[end - start];
-        System.arraycopy(this.values, start, seqChars, 0, seqChars.length);
-        return new String(seqChars);
+        return string(start + contiguous(start, end), end - start);
     }
 
     /**
@@ -99,7 +192,51 @@ public class StringBuilder implements CharSequence {
      */
     @Override
     public String toString() {
-        return new String(this.values);
+        moveGap(this.size);
+        return string(0, this.size);
+    }
+
+    /**
+     * Gets a range of the {@code StringBuilder} without copying it. The view reads through to the
+     * {@code StringBuilder} and becomes invalid once its content is changed, use {@link View#toString()} to keep it.
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @return a {@link View} of the given range
+     * @see #subSequence(int, int)
+     */
+    public View view(int start, int end) {
+        checkSubSeqIndices(start, end);
+
+        return new View(this, start, end, this.modCount);
+    }
+
+    /**
+     * Gets a copy of the {@code StringBuilder} which shares the backing array with it. The array is only copied once
+     * this {@code StringBuilder} or the snapshot is changed, so taking a snapshot costs no more than a few fields.
+     * @return a new {@code StringBuilder} with the same content
+     */
+    public StringBuilder snapshot() {
+        moveGap(this.size);
+        this.shared = true;
+        return new StringBuilder(this);
+    }
+
+    /**
+     * Gets a {@link SuffixIndex} over the current content, which answers repeated substring queries without scanning
+     * the whole {@code StringBuilder}. The index is cached and only rebuilt after the content was changed.
+     * @return {@link SuffixIndex}
+     */
+    public SuffixIndex index() {
+        if(this.index == null || !this.index.isValid())
+            this.index = new SuffixIndex(this);
+        return this.index;
+    }
+
+    /**
+     * @return the amount of changes to the content so far
+     */
+    int modCount() {
+        return this.modCount;
     }
 
     /**
@@ -110,27 +247,337 @@ public class StringBuilder implements CharSequence {
         return this.size == 0;
     }
 
-    private void resize() {
-        if(this.size != this.values.length)
+    /**
+     * @return {@code true} if the content is stored as Latin-1
+     */
+    public boolean isCompact() {
+        return this.latin != null;
+    }
+
+    /**
+     * @return the amount of chars the {@code StringBuilder} can hold without growing
+     */
+    public int capacity() {
+        return this.latin != null ? this.latin.length : this.values.length;
+    }
+
+    // ---- storage ----
+
+    /**
+     * @return the backing array, either {@link #values} or {@link #latin}
+     */
+    private Object buffer() {
+        return this.latin != null ? this.latin : this.values;
+    }
+
+    /**
+     * @param index Index in the {@code StringBuilder}
+     * @return The index in the backing array
+     */
+    private int rawIndex(int index) {
+        return index < this.gap ? index : index + gapLength();
+    }
+
+    /**
+     * @param index Index in the backing array
+     * @return The {@code char} at the given index of the backing array
+     */
+    private char raw(int index) {
+        return this.latin != null ? (char) (this.latin[index] & 0xFF) : this.values[index];
+    }
+
+    /**
+     * @param index Index in the backing array
+     * @param length Length of the {@link String}
+     * @return A {@link String} of the backing array, Latin-1 content is copied without inflating it
+     */
+    private String string(int index, int length) {
+        if(this.latin != null)
+            return new String(this.latin, index, length, StandardCharsets.ISO_8859_1);
+        return new String(this.values, index, length);
+    }
+
+    /**
+     * Switches a compact {@code StringBuilder} to a {@code char[]}
+     */
+    private void inflate() {
+        if(this.latin == null)
             return;
 
-        char[] newValues = new char[this.values.length << 1];
-        System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+        char[] newValues = new char[this.latin.length];
+        for(int i = 0; i < newValues.length; i ++)
+            newValues[i] = (char) (this.latin[i] & 0xFF);
         this.values = newValues;
+        this.latin = null;
+        this.shared = false;
+    }
+
+    /**
+     * Copies the backing array if it is shared with a snapshot, must be called before the backing array is changed
+     */
+    private void unshare() {
+        if(!this.shared)
+            return;
+
+        if(this.latin != null)
+            this.latin = this.latin.clone();
+        else
+            this.values = this.values.clone();
+        this.shared = false;
+    }
+
+    // ---- gap buffer ----
+
+    private int gapLength() {
+        return capacity() - this.size;
     }
 
+    /**
+     * Moves the gap to the given index by shifting only the chars between the old and the new gap position
+     * @param index New start of the gap
+     */
+    private void moveGap(int index) {
+        if(index == this.gap)
+            return;
+
+        unshare();
+        Object buffer = buffer();
+        int gapLength = gapLength();
+        if(index < this.gap)
+            System.arraycopy(buffer, index, buffer, index + gapLength, this.gap - index);
+        else
+            System.arraycopy(buffer, this.gap + gapLength, buffer, this.gap, index - this.gap);
+        this.gap = index;
+    }
+
+    /**
+     * Grows the backing array until the gap can hold the given amount of chars
+     * @param length Amount of chars to be inserted
+     */
     private void resize(int length) {
-        int minSize = this.values.length + length;
-        if(this.size >= minSize)
+        if(gapLength() >= length)
             return;
 
-        int newSize = this.values.length << 1;
+        int capacity = capacity();
+        int minSize = this.size + length;
+        int newSize = Math.max(capacity << 1, 1);
         while(newSize < minSize)
             newSize <<= 1;
 
-        char[] newValues = new char[newSize];
-        System.arraycopy(this.values, 0, newValues, 0, this.values.length);
-        this.values = newValues;
+        int tail = this.size - this.gap;
+        Object buffer = buffer();
+        Object newBuffer = this.latin != null ? new byte[newSize] : new char[newSize];
+        System.arraycopy(buffer, 0, newBuffer, 0, this.gap);
+        System.arraycopy(buffer, capacity - tail, newBuffer, newSize - tail, tail);
+        if(this.latin != null)
+            this.latin = (byte[]) newBuffer;
+        else
+            this.values = (char[]) newBuffer;
+        this.shared = false;
+    }
+
+    /**
+     * Makes room for at least {@code length} chars at the given index, they are written at {@link #gap}
+     * and committed with {@link #added(int)}
+     */
+    private void reserve(int index, int length) {
+        resize(length);
+        unshare();
+        moveGap(index);
+    }
+
+    private StringBuilder added(int length) {
+        this.gap += length;
+        this.size += length;
+        this.modCount ++;
+        return this;
+    }
+
+    /**
+     * Writes a part of the given {@link CharSequence} at {@link #gap}, which must already be reserved.
+     * Inflates the {@code StringBuilder} if needed.
+     */
+    private void write(CharSequence cs, int start, int end) {
+        if(this.latin != null) {
+            if(cs instanceof StringBuilder sb && sb.latin != null) {
+                sb.getBytes(start, end, this.latin, this.gap);
+                return;
+            }
+            if(cs instanceof View v && v.sb.latin != null) {
+                v.check();
+                v.sb.getBytes(v.start + start, v.start + end, this.latin, this.gap);
+                return;
+            }
+            for(int i = 0; i < end - start; i ++) {
+                char c = cs.charAt(start + i);
+                if(c > 0xFF) {
+                    inflate();
+                    break;
+                }
+                this.latin[this.gap + i] = (byte) c;
+            }
+            if(this.latin != null)
+                return;
+        }
+
+        copyChars(cs, start, end, this.values, this.gap);
+    }
+
+    /**
+     * Copies a part of the given {@link CharSequence} into the given {@code char[]}, using a bulk copy if the type
+     * of the {@link CharSequence} has one
+     */
+    private static void copyChars(CharSequence cs, int start, int end, char[] dst, int dstBegin) {
+        if(cs instanceof String s)
+            s.getChars(start, end, dst, dstBegin);
+        else if(cs instanceof StringBuilder sb)
+            sb.getChars(start, end, dst, dstBegin);
+        else if(cs instanceof View v)
+            v.getChars(start, end, dst, dstBegin);
+        else if(cs instanceof java.lang.StringBuilder sb)
+            sb.getChars(start, end, dst, dstBegin);
+        else if(cs instanceof StringBuffer sb)
+            sb.getChars(start, end, dst, dstBegin);
+        else if(cs instanceof CharBuffer cb)
+            cb.get(cb.position() + start, dst, dstBegin, end - start);
+        else
+            for(int i = start; i < end; i ++)
+                dst[dstBegin ++] = cs.charAt(i);
+    }
+
+    /**
+     * Writes a part of the given {@code char[]} at {@link #gap}, which must already be reserved.
+     * Inflates the {@code StringBuilder} if needed.
+     */
+    private void write(char[] chars, int offset, int length) {
+        if(this.latin != null) {
+            for(int i = 0; i < length; i ++) {
+                char c = chars[offset + i];
+                if(c > 0xFF) {
+                    inflate();
+                    break;
+                }
+                this.latin[this.gap + i] = (byte) c;
+            }
+            if(this.latin != null)
+                return;
+        }
+
+        System.arraycopy(chars, offset, this.values, this.gap, length);
+    }
+
+    /**
+     * Copies chars of the {@code StringBuilder} into the given {@code char[]}
+     * @param srcBegin the start index, inclusive
+     * @param srcEnd the end index, exclusive
+     * @param dst the destination array
+     * @param dstBegin the start offset in the destination array
+     * @see String#getChars(int, int, char[], int)
+     */
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        checkSubSeqIndices(srcBegin, srcEnd);
+
+        int gapLength = gapLength();
+        int before = Math.max(Math.min(srcEnd, this.gap) - srcBegin, 0);
+        int after = srcEnd - srcBegin - before;
+        int afterStart = Math.max(srcBegin, this.gap) + gapLength;
+
+        if(this.latin != null) {
+            for(int i = 0; i < before; i ++)
+                dst[dstBegin + i] = (char) (this.latin[srcBegin + i] & 0xFF);
+            for(int i = 0; i < after; i ++)
+                dst[dstBegin + before + i] = (char) (this.latin[afterStart + i] & 0xFF);
+        } else {
+            System.arraycopy(this.values, srcBegin, dst, dstBegin, before);
+            System.arraycopy(this.values, afterStart, dst, dstBegin + before, after);
+        }
+    }
+
+    /**
+     * Copies the Latin-1 content of a compact {@code StringBuilder} into the given {@code byte[]}
+     */
+    void getBytes(int srcBegin, int srcEnd, byte[] dst, int dstBegin) {
+        int before = Math.max(Math.min(srcEnd, this.gap) - srcBegin, 0);
+        System.arraycopy(this.latin, srcBegin, dst, dstBegin, before);
+        System.arraycopy(this.latin, Math.max(srcBegin, this.gap) + gapLength(), dst, dstBegin + before, srcEnd - srcBegin - before);
+    }
+
+    // ---- edits ----
+
+    /**
+     * Applies sorted edits which do not overlap in one pass into a new backing array of exactly the needed capacity
+     * @param starts Start index of each edit
+     * @param ends End index of each edit, equal to the start for an insert
+     * @param texts Text of each edit, {@code null} to only remove the range
+     * @param count Amount of edits
+     * @see StringBuilderEdits#apply()
+     */
+    void apply(int[] starts, int[] ends, CharSequence[] texts, int count) {
+        int length = this.size;
+        boolean latin = this.latin != null;
+        for(int i = 0; i < count; i ++) {
+            length -= ends[i] - starts[i];
+            if(texts[i] != null) {
+                length += texts[i].length();
+                latin = latin && isLatin(texts[i]);
+            }
+        }
+
+        Object newBuffer = latin ? new byte[length] : new char[length];
+        int position = 0;
+        int last = 0;
+        for(int i = 0; i <= count; i ++) {
+            int start = i < count ? starts[i] : this.size;
+            if(latin)
+                getBytes(last, start, (byte[]) newBuffer, position);
+            else
+                getChars(last, start, (char[]) newBuffer, position);
+            position += start - last;
+
+            if(i == count)
+                break;
+            CharSequence text = texts[i];
+            if(text != null) {
+                if(latin)
+                    copyBytes(text, (byte[]) newBuffer, position);
+                else
+                    copyChars(text, 0, text.length(), (char[]) newBuffer, position);
+                position += text.length();
+            }
+            last = ends[i];
+        }
+
+        if(latin) {
+            this.latin = (byte[]) newBuffer;
+        } else {
+            this.values = (char[]) newBuffer;
+            this.latin = null;
+        }
+        this.size = length;
+        this.gap = length;
+        this.shared = false;
+        this.modCount ++;
+    }
+
+    private static boolean isLatin(CharSequence cs) {
+        if(cs instanceof StringBuilder sb && sb.latin != null)
+            return true;
+        for(int i = 0; i < cs.length(); i ++)
+            if(cs.charAt(i) > 0xFF)
+                return false;
+        return true;
+    }
+
+    /**
+     * Copies the given Latin-1 {@link CharSequence} into the given {@code byte[]}
+     */
+    private static void copyBytes(CharSequence cs, byte[] dst, int dstBegin) {
+        if(cs instanceof StringBuilder sb && sb.latin != null) {
+            sb.getBytes(0, sb.size, dst, dstBegin);
+            return;
+        }
+        for(int i = 0; i < cs.length(); i ++)
+            dst[dstBegin + i] = (byte) cs.charAt(i);
     }
 
 
@@ -150,12 +597,11 @@ public class StringBuilder implements CharSequence {
         if(index < 0)
             throw new StringIndexOutOfBoundsException("Index must not be negative\n\tIndex: " + index);
 
-        char c = this.values[index];
+        moveGap(index);
 
-        char[] newValues = new char[this.size - 1];
-        System.arraycopy(this.values, 0, newValues, 0, index);
-        System.arraycopy(this.values, index, newValues, index - 1, this.size - 1);
-        this.values = newValues;
+        char c = raw(index + gapLength());
+        this.size --;
+        this.modCount ++;
 
         return c;
     }
@@ -171,21 +617,44 @@ public class StringBuilder implements CharSequence {
 
         int length = end - start;
 
-        StringBuilder sb = new StringBuilder(length);
+        moveGap(start);
 
-        for(int i = start; i < end; i ++)
-            sb.append(this.values[i]);
+        String s = string(start + gapLength(), length);
+        this.size -= length;
+        this.modCount ++;
 
-        char[] newValues = new char[this.size - length];
-        System.arraycopy(this.values, 0, newValues, 0, start);
-        System.arraycopy(this.values, end, newValues, start, this.size - end);
-        this.values = newValues;
-
-        return sb.toString();
+        return s;
     }
 
     // ---- indexOf() ----
 
+    /**
+     * Moves the gap out of the given range so it can be searched as one block of the backing array
+     * @return the offset between the indices of the range and the indices in the backing array
+     */
+    private int contiguous(int start, int end) {
+        if(start < this.gap && end > this.gap)
+            moveGap(this.gap - start < end - this.gap ? start : end);
+        return start < this.gap ? 0 : gapLength();
+    }
+
+    /**
+     * Gets the first index of the {@link SearchPattern} in the {@code StringBuilder}
+     * @param pattern The compiled substring to search for
+     * @param start The start index
+     * @param end The end index
+     * @return The first occurrence of the substring in this {@code StringBuilder}
+     * @see #indicesOf(SearchPattern, int, int, IntList)
+     */
+    public int indexOf(SearchPattern pattern, int start, int end) {
+        checkSubSeqIndices(start, end);
+
+        int offset = contiguous(start, end);
+        if(this.latin != null)
+            return pattern.indexOf(this.latin, start + offset, end + offset, offset);
+        return pattern.indexOf(this.values, start + offset, end + offset, offset);
+    }
+
     /**
      * Gets the first index of the {@link String} in the {@code StringBuilder}
      * @param s The substring to search for
@@ -195,26 +664,7 @@ public class StringBuilder implements CharSequence {
      * @see #indicesOf(String, int, int)
      */
     public int indexOf(String s, int start, int end) {
-        checkSubSeqIndices(start, end);
-
-        int length = end - start;
-
-        if(s.isEmpty())
-            return 0;
-        if(this.size == 0)
-            return -1;
-
-        char firstChar = s.charAt(0);
-        for(int index = start; index < length; index ++) {
-            if(this.values[index] == firstChar) {
-                for(int i = 0; i < s.length(); i ++)
-                    if(this.values[index + i] != s.charAt(i))
-                        break;
-                return index;
-            }
-        }
-
-        return -1;
+        return indexOf(SearchPattern.compile(s), start, end);
     }
     
     /**
@@ -226,7 +676,7 @@ public class StringBuilder implements CharSequence {
      * @see #indicesOf(CharSequence, int, int)
      */
     public int indexOf(CharSequence cs, int start, int end) {
-        return indexOf(cs.toString(), start, end);
+        return indexOf(SearchPattern.compile(cs), start, end);
     }
     
     /**
@@ -250,6 +700,27 @@ public class StringBuilder implements CharSequence {
     }
     
     // ---- indicesOf() ----
+
+    /**
+     * Adds all indices of the {@link SearchPattern} in the {@code StringBuilder} to the given {@link IntList}
+     * @param pattern The compiled substring to search for
+     * @param start The start index
+     * @param end The end index
+     * @param indices The list the indices are added to
+     * @return {@code indices}
+     * @see #indexOf(SearchPattern, int, int)
+     */
+    public IntList indicesOf(SearchPattern pattern, int start, int end, IntList indices) {
+        checkSubSeqIndices(start, end);
+
+        int offset = contiguous(start, end);
+        if(this.latin != null)
+            pattern.indicesOf(this.latin, start + offset, end + offset, offset, indices);
+        else
+            pattern.indicesOf(this.values, start + offset, end + offset, offset, indices);
+        return indices;
+    }
+
     /**
      * Gets the all indices of the {@link String} in the {@code StringBuilder}
      * @param s The substring to search for
@@ -259,35 +730,7 @@ public class StringBuilder implements CharSequence {
      * @see #indexOf(String, int, int)
      */
     public int[] indicesOf(String s, int start, int end) {
-        checkSubSeqIndices(start, end);
-
-        ArrayList<Integer> indices = new ArrayList<>();
-
-        int length = end - start;
-
-        if(s.isEmpty()) {
-            int[] array = new int[length];
-            for (int i = start; i < end; i++)
-                array[i] = i;
-            return array;
-        }
-        if(this.size == 0)
-            return new int[]{-1};
-
-        char firstChar = s.charAt(0);
-        for(int index = start; index < length; index ++) {
-            if(this.values[index] == firstChar) {
-                for(int i = 0; i < s.length(); i ++)
-                    if(this.values[index + i] != s.charAt(i))
-                        break;
-                indices.add(index);
-            }
-        }
-
-        int[] array = new int[indices.size()];
-        for(int i = 0; i < array.length; i ++)
-            array[i] = indices.get(i);
-        return array;
+        return indicesOf(SearchPattern.compile(s), start, end, new IntList()).toArray();
     }
     
     /**
@@ -299,7 +742,7 @@ public class StringBuilder implements CharSequence {
      * @see #indexOf(CharSequence, int, int) 
      */
     public int[] indicesOf(CharSequence cs, int start, int end) {
-        return indicesOf(cs.toString(), start, end);
+        return indicesOf(SearchPattern.compile(cs), start, end, new IntList()).toArray();
     }
     
     /**
@@ -322,6 +765,80 @@ public class StringBuilder implements CharSequence {
         return indicesOf(cs, 0, this.size);
     }
 
+    // ---- indicesOfAny() ----
+
+    /**
+     * Adds all indices of the patterns of the {@link MultiSearchPattern} in the {@code StringBuilder}, ordered by the
+     * end index of each occurrence
+     * @param pattern The compiled substrings to search for
+     * @param start The start index
+     * @param end The end index
+     * @param indices The list the start indices are added to
+     * @param patterns The list the matching pattern indices are added to, may be {@code null}
+     * @return {@code indices}
+     */
+    public IntList indicesOfAny(MultiSearchPattern pattern, int start, int end, IntList indices, IntList patterns) {
+        checkSubSeqIndices(start, end);
+
+        int offset = contiguous(start, end);
+        if(this.latin != null)
+            pattern.indicesOf(this.latin, start + offset, end + offset, offset, indices, patterns);
+        else
+            pattern.indicesOf(this.values, start + offset, end + offset, offset, indices, patterns);
+        return indices;
+    }
+
+    /**
+     * Gets the all indices of any of the given {@link String}s in the {@code StringBuilder}
+     * @param patterns The substrings to search for
+     * @return All occurrences of the substrings in this {@code StringBuilder}, sorted ascending
+     */
+    public int[] indicesOfAny(String... patterns) {
+        IntList indices = indicesOfAny(MultiSearchPattern.compile(patterns), 0, this.size, new IntList(), null);
+        indices.sort();
+        return indices.toArray();
+    }
+
+    // ---- replaceAll() ----
+
+    /**
+     * Replaces every occurrence of the {@link SearchPattern} from left to right, occurrences overlapping a replaced one
+     * are skipped. All replacements are applied in a single pass.
+     * @param pattern The compiled substring to replace, must not be empty
+     * @param replacement The replacement
+     * @return {@code this}
+     * @see StringBuilderEdits
+     */
+    public StringBuilder replaceAll(SearchPattern pattern, CharSequence replacement) {
+        if(pattern.length() == 0)
+            throw new IllegalArgumentException("Pattern must not be empty");
+
+        IntList indices = indicesOf(pattern, 0, this.size, new IntList());
+        StringBuilderEdits edits = new StringBuilderEdits(this);
+        int last = 0;
+        for(int i = 0; i < indices.size(); i ++) {
+            int index = indices.get(i);
+            if(index < last)
+                continue;
+            edits.replace(index, index + pattern.length(), replacement);
+            last = index + pattern.length();
+        }
+
+        edits.apply();
+        return this;
+    }
+
+    /**
+     * Replaces every occurrence of the given {@link CharSequence} from left to right
+     * @param target The substring to replace, must not be empty
+     * @param replacement The replacement
+     * @return {@code this}
+     * @see #replaceAll(SearchPattern, CharSequence)
+     */
+    public StringBuilder replaceAll(CharSequence target, CharSequence replacement) {
+        return replaceAll(SearchPattern.compile(target), replacement);
+    }
+
     // ---- add() ----
 
     private void checkAddIndex(int index) {
@@ -348,7 +865,46 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, CharSequence o) {
-        return add(index, o.toString());
+        return add(index, o, 0, o.length());
+    }
+
+    /**
+     * Adds a part of the given {@link CharSequence} to the given index
+     * @param index Position of the given value
+     * @param cs Value
+     * @param start the start index in {@code cs}, inclusive
+     * @param end the end index in {@code cs}, exclusive
+     * @return {@code this}
+     */
+    public StringBuilder add(int index, CharSequence cs, int start, int end) {
+        checkAddIndex(index);
+        if(start < 0 || start > end || end > cs.length())
+            throw new StringIndexOutOfBoundsException("Range is out of bounds\n\tStart: " + start + ", End: " + end + ", Length: " + cs.length());
+
+        if(cs == this || cs instanceof View v && v.sb == this)
+            return add(index, cs.subSequence(start, end).toString());
+
+        reserve(index, end - start);
+        write(cs, start, end);
+        return added(end - start);
+    }
+
+    /**
+     * Adds a part of the given {@code char[]} to the given index
+     * @param index Position of the given value
+     * @param chars Value
+     * @param offset Index of the first {@code char} in {@code chars}
+     * @param length Amount of chars
+     * @return {@code this}
+     */
+    public StringBuilder add(int index, char[] chars, int offset, int length) {
+        checkAddIndex(index);
+        if(offset < 0 || length < 0 || offset + length > chars.length)
+            throw new StringIndexOutOfBoundsException("Range is out of bounds\n\tOffset: " + offset + ", Length: " + length + ", Array length: " + chars.length);
+
+        reserve(index, length);
+        write(chars, offset, length);
+        return added(length);
     }
 
     /**
@@ -359,13 +915,10 @@ public class StringBuilder implements CharSequence {
      */
     public StringBuilder add(int index, String o) {
         checkAddIndex(index);
+        reserve(index, o.length());
 
-        resize(o.length());
-
-        for(int i = 0; i < o.length(); i ++)
-            this.values[index + i] = o.charAt(i);
-
-        return this;
+        write(o, 0, o.length());
+        return added(o.length());
     }
 
     /**
@@ -376,15 +929,18 @@ public class StringBuilder implements CharSequence {
      */
     public StringBuilder add(int index, char c) {
         checkAddIndex(index);
-        if(this.size == this.values.length)
-            resize();
+        reserve(index, 1);
 
-        System.arraycopy(this.values, index, this.values, index + 1, size - index);
-
-        this.values[index] = c;
-        this.size ++;
+        if(this.latin != null) {
+            if(c <= 0xFF) {
+                this.latin[this.gap] = (byte) c;
+                return added(1);
+            }
+            inflate();
+        }
 
-        return this;
+        this.values[this.gap] = c;
+        return added(1);
     }
 
     /**
@@ -404,7 +960,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, byte o) {
-        return add(index, Byte.toString(o));
+        return add(index, (int) o);
     }
 
     /**
@@ -414,7 +970,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, short o) {
-        return add(index, Short.toString(o));
+        return add(index, (int) o);
     }
 
     /**
@@ -424,7 +980,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, int o) {
-        return add(index, Integer.toString(o));
+        return add(index, (long) o);
     }
 
     /**
@@ -434,7 +990,10 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, long o) {
-        return add(index, Long.toString(o));
+        checkAddIndex(index);
+        reserve(index, Numbers.stringSize(o));
+
+        return added(Numbers.writeLong(o, buffer(), this.gap));
     }
 
     /**
@@ -444,7 +1003,10 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, float o) {
-        return add(index, Float.toString(o));
+        checkAddIndex(index);
+        reserve(index, Numbers.MAX_FLOAT_LENGTH);
+
+        return added(Numbers.writeFloat(o, buffer(), this.gap));
     }
 
     /**
@@ -454,7 +1016,54 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder add(int index, double o) {
-        return add(index, Double.toString(o));
+        checkAddIndex(index);
+        reserve(index, Numbers.MAX_DOUBLE_LENGTH);
+
+        return added(Numbers.writeDouble(o, buffer(), this.gap));
+    }
+
+    /**
+     * Adds the given value with a fixed amount of fraction digits, rounded half up, to the given index
+     * @param index Position of the given value
+     * @param o Value
+     * @param precision Amount of fraction digits, from 0 to 17
+     * @return {@code this}
+     */
+    public StringBuilder addFixed(int index, double o, int precision) {
+        checkAddIndex(index);
+        if(precision < 0 || precision > Numbers.MAX_PRECISION)
+            throw new IllegalArgumentException("Precision must be between 0 and " + Numbers.MAX_PRECISION + "\n\tPrecision: " + precision);
+
+        if(!Numbers.fitsFixed(o, precision))
+            return add(index, new BigDecimal(o).setScale(precision, RoundingMode.HALF_UP).toPlainString());
+
+        reserve(index, Numbers.MAX_DOUBLE_LENGTH + precision);
+        return added(Numbers.writeFixed(o, precision, buffer(), this.gap));
+    }
+
+    /**
+     * Adds the unsigned hexadecimal {@link String} of the given value to the given index
+     * @param index Position of the given value
+     * @param o Value
+     * @return {@code this}
+     * @see Integer#toHexString(int)
+     */
+    public StringBuilder addHex(int index, int o) {
+        return addHex(index, Integer.toUnsignedLong(o));
+    }
+
+    /**
+     * Adds the unsigned hexadecimal {@link String} of the given value to the given index
+     * @param index Position of the given value
+     * @param o Value
+     * @return {@code this}
+     * @see Long#toHexString(long)
+     */
+    public StringBuilder addHex(int index, long o) {
+        checkAddIndex(index);
+        reserve(index, Numbers.hexSize(o));
+
+        return added(Numbers.writeHex(o, buffer(), this.gap));
     }
 
     // ---- append() ----
@@ -474,7 +1083,112 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(CharSequence o) {
-        return append(o.toString());
+        return add(this.size, o, 0, o.length());
+    }
+
+    /**
+     * Appends a part of the given {@link CharSequence} to the end of the {@code StringBuilder}
+     * @param cs Value
+     * @param start the start index in {@code cs}, inclusive
+     * @param end the end index in {@code cs}, exclusive
+     * @return {@code this}
+     */
+    public StringBuilder append(CharSequence cs, int start, int end) {
+        return add(this.size, cs, start, end);
+    }
+
+    /**
+     * Appends the given {@code char[]} to the end of the {@code StringBuilder}
+     * @param chars Value
+     * @return {@code this}
+     */
+    public StringBuilder append(char[] chars) {
+        return add(this.size, chars, 0, chars.length);
+    }
+
+    /**
+     * Appends a part of the given {@code char[]} to the end of the {@code StringBuilder}
+     * @param chars Value
+     * @param offset Index of the first {@code char} in {@code chars}
+     * @param length Amount of chars
+     * @return {@code this}
+     */
+    public StringBuilder append(char[] chars, int offset, int length) {
+        return add(this.size, chars, offset, length);
+    }
+
+    /**
+     * Appends all given parts separated by the separator, the capacity is checked only once for all parts
+     * @param parts Values, must not contain {@code this}
+     * @param separator Separator between two parts
+     * @return {@code this}
+     */
+    public StringBuilder appendAll(Iterable<? extends CharSequence> parts, CharSequence separator) {
+        int total = 0;
+        int count = 0;
+        for(CharSequence part: parts) {
+            if(part == this || part instanceof View v && v.sb == this)
+                throw new IllegalArgumentException("A StringBuilder can not be appended to itself");
+            total += part.length();
+            count ++;
+        }
+        if(count > 1)
+            total += separator.length() * (count - 1);
+
+        reserve(this.size, total);
+
+        boolean first = true;
+        for(CharSequence part: parts) {
+            if(!first) {
+                write(separator, 0, separator.length());
+                added(separator.length());
+            }
+            write(part, 0, part.length());
+            added(part.length());
+            first = false;
+        }
+
+        return this;
+    }
+
+    /**
+     * Appends all given parts, the capacity is checked only once for all parts
+     * @param parts Values, must not contain {@code this}
+     * @return {@code this}
+     */
+    public StringBuilder appendAll(CharSequence... parts) {
+        return appendAll(Arrays.asList(parts), "");
+    }
+
+    /**
+     * Joins the given parts into a new {@code StringBuilder} with exactly the needed capacity
+     * @param separator Separator between two parts
+     * @param parts Values
+     * @return {@link StringBuilder}
+     * @see String#join(CharSequence, Iterable)
+     */
+    public static StringBuilder join(CharSequence separator, Iterable<? extends CharSequence> parts) {
+        int total = 0;
+        int count = 0;
+        for(CharSequence part: parts) {
+            total += part.length();
+            count ++;
+        }
+        if(count > 1)
+            total += separator.length() * (count - 1);
+
+        return new StringBuilder(total).appendAll(parts, separator);
+    }
+
+    /**
+     * Joins the given parts into a new {@code StringBuilder} with exactly the needed capacity
+     * @param separator Separator between two parts
+     * @param parts Values
+     * @return {@link StringBuilder}
+     * @see String#join(CharSequence, CharSequence...)
+     */
+    public static StringBuilder join(CharSequence separator, CharSequence... parts) {
+        return join(separator, Arrays.asList(parts));
     }
 
     /**
@@ -483,9 +1197,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(String o) {
-        for(char c: o.toCharArray())
-            append(c);
-        return this;
+        return add(this.size, o);
     }
 
     /**
@@ -494,12 +1206,12 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(char c) {
-        if(this.size == this.values.length)
-            resize();
-
-        this.values[this.size ++] = c;
+        if(this.latin != null)
+            return add(this.size, c);
 
-        return this;
+        reserve(this.size, 1);
+        this.values[this.gap] = c;
+        return added(1);
     }
 
     /**
@@ -517,7 +1229,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(byte o) {
-        return append(Byte.toString(o));
+        return add(this.size, (int) o);
     }
 
     /**
@@ -526,7 +1238,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(short o) {
-        return append(Short.toString(o));
+        return add(this.size, (int) o);
     }
 
     /**
@@ -535,7 +1247,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(int o) {
-        return append(Integer.toString(o));
+        return add(this.size, (long) o);
     }
 
     /**
@@ -544,7 +1256,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(long o) {
-        return append(Long.toString(o));
+        return add(this.size, o);
     }
 
     /**
@@ -553,7 +1265,7 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(float o) {
-        return append(Float.toString(o));
+        return add(this.size, o);
     }
 
     /**
@@ -562,7 +1274,239 @@ public class StringBuilder implements CharSequence {
      * @return {@code this}
      */
     public StringBuilder append(double o) {
-        return append(Double.toString(o));
+        return add(this.size, o);
+    }
+
+    /**
+     * Appends the given value with a fixed amount of fraction digits, rounded half up, to the end of the {@code StringBuilder}
+     * @param o Value
+     * @param precision Amount of fraction digits, from 0 to 17
+     * @return {@code this}
+     */
+    public StringBuilder appendFixed(double o, int precision) {
+        return addFixed(this.size, o, precision);
+    }
+
+    /**
+     * Appends the unsigned hexadecimal {@link String} of the given value to the end of the {@code StringBuilder}
+     * @param o Value
+     * @return {@code this}
+     * @see Integer#toHexString(int)
+     */
+    public StringBuilder appendHex(int o) {
+        return addHex(this.size, o);
+    }
+
+    /**
+     * Appends the unsigned hexadecimal {@link String} of the given value to the end of the {@code StringBuilder}
+     * @param o Value
+     * @return {@code this}
+     * @see Long#toHexString(long)
+     */
+    public StringBuilder appendHex(long o) {
+        return addHex(this.size, o);
+    }
+
+    // ---- writeTo() ----
+
+    private static final int CHUNK_SIZE = 1 << 13;
+
+    /**
+     * Encodes the content from the given index into the {@link ByteBuffer} until it is full
+     * <p>UTF-8, ISO-8859-1 and US-ASCII are encoded directly from the backing array, other {@link Charset}s use a new
+     * {@link CharsetEncoder} per call. Chars which can not be encoded are replaced by {@code '?'} and surrogate pairs
+     * are never split.</p>
+     * @param dst The buffer to write to
+     * @param charset The {@link Charset} to encode with
+     * @param start Index of the first char to encode
+     * @return The index of the first char not encoded, {@link #length()} once everything is encoded
+     * @see StringBuilderWriter
+     */
+    public int writeTo(ByteBuffer dst, Charset charset, int start) {
+        checkSubSeqIndices(start, this.size);
+
+        if(charset.equals(StandardCharsets.UTF_8))
+            return encodeUtf8(dst, start);
+        if(charset.equals(StandardCharsets.ISO_8859_1))
+            return encodeSingleByte(dst, start, 0xFF);
+        if(charset.equals(StandardCharsets.US_ASCII))
+            return encodeSingleByte(dst, start, 0x7F);
+
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        int end = encode(dst, encoder, start);
+        if(end == this.size)
+            encoder.flush(dst);
+        return end;
+    }
+
+    /**
+     * Encodes the content into the {@link ByteBuffer} until it is full
+     * @param dst The buffer to write to
+     * @param charset The {@link Charset} to encode with
+     * @return The index of the first char not encoded, {@link #length()} once everything is encoded
+     * @see #writeTo(ByteBuffer, Charset, int)
+     */
+    public int writeTo(ByteBuffer dst, Charset charset) {
+        return writeTo(dst, charset, 0);
+    }
+
+    /**
+     * Writes the content as UTF-8 to the given blocking {@link WritableByteChannel}
+     * @param channel The channel to write to
+     * @return The amount of bytes written
+     * @throws IOException If the channel throws one
+     * @throws IllegalBlockingModeException If the channel is a {@link SelectableChannel} in non-blocking mode
+     * @see StringBuilderWriter#writeTo(WritableByteChannel) for non-blocking channels
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        return writeTo(channel, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the content to the given blocking {@link WritableByteChannel}
+     * @param channel The channel to write to
+     * @param charset The {@link Charset} to encode with
+     * @return The amount of bytes written
+     * @throws IOException If the channel throws one
+     * @throws IllegalBlockingModeException If the channel is a {@link SelectableChannel} in non-blocking mode
+     * @see StringBuilderWriter#writeTo(WritableByteChannel) for non-blocking channels
+     */
+    public long writeTo(WritableByteChannel channel, Charset charset) throws IOException {
+        if(channel instanceof SelectableChannel selectable && !selectable.isBlocking())
+            throw new IllegalBlockingModeException();
+
+        StringBuilderWriter writer = new StringBuilderWriter(this, charset);
+        while(!writer.writeTo(channel)) {
+            // a blocking channel may still accept only part of a chunk, write the rest
+        }
+        return writer.getBytesWritten();
+    }
+
+    /**
+     * Writes the content as UTF-8 to the given {@link OutputStream}
+     * @param out The stream to write to
+     * @return The amount of bytes written
+     * @throws IOException If the stream throws one
+     */
+    public long writeTo(OutputStream out) throws IOException {
+        return writeTo(out, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the content to the given {@link OutputStream}
+     * @param out The stream to write to
+     * @param charset The {@link Charset} to encode with
+     * @return The amount of bytes written
+     * @throws IOException If the stream throws one
+     */
+    public long writeTo(OutputStream out, Charset charset) throws IOException {
+        return new StringBuilderWriter(this, charset, Math.min(CHUNK_SIZE, Math.max(this.size * 3, 4)), false).writeTo(out);
+    }
+
+    /**
+     * Encodes with the given {@link CharsetEncoder} which keeps its state between the calls
+     */
+    int encode(ByteBuffer dst, CharsetEncoder encoder, int start) {
+        CharBuffer in = CharBuffer.wrap(this, start, this.size);
+        encoder.encode(in, dst, true);
+        return in.position();
+    }
+
+    private int encodeSingleByte(ByteBuffer dst, int start, int max) {
+        int i = start;
+        int gapLength = gapLength();
+
+        if(this.latin != null && max == 0xFF) {
+            while(i < this.size && dst.hasRemaining()) {
+                int length = Math.min((i < this.gap ? this.gap : this.size) - i, dst.remaining());
+                dst.put(this.latin, rawIndex(i), length);
+                i += length;
+            }
+            return i;
+        }
+
+        while(i < this.size && dst.hasRemaining()) {
+            char c = raw(i < this.gap ? i : i + gapLength);
+            if(c <= max) {
+                dst.put((byte) c);
+            } else {
+                dst.put((byte) '?');
+                if(Character.isHighSurrogate(c) && i + 1 < this.size && Character.isLowSurrogate(charAt(i + 1)))
+                    i ++;
+            }
+            i ++;
+        }
+        return i;
+    }
+
+    private int encodeUtf8(ByteBuffer dst, int start) {
+        int i = start;
+        int gapLength = gapLength();
+
+        if(this.latin != null) {
+            while(i < this.size && dst.hasRemaining()) {
+                int raw = i < this.gap ? i : i + gapLength;
+                int end = raw + Math.min((i < this.gap ? this.gap : this.size) - i, dst.remaining());
+
+                // bulk copy of the ASCII run
+                int ascii = raw;
+                while(ascii < end && this.latin[ascii] >= 0)
+                    ascii ++;
+                if(ascii > raw) {
+                    dst.put(this.latin, raw, ascii - raw);
+                    i += ascii - raw;
+                    continue;
+                }
+
+                if(dst.remaining() < 2)
+                    break;
+                int b = this.latin[raw] & 0xFF;
+                dst.put((byte) (0xC0 | b >> 6));
+                dst.put((byte) (0x80 | b & 0x3F));
+                i ++;
+            }
+            return i;
+        }
+
+        while(i < this.size) {
+            char c = this.values[i < this.gap ? i : i + gapLength];
+            if(c < 0x80) {
+                if(!dst.hasRemaining())
+                    break;
+                dst.put((byte) c);
+            } else if(c < 0x800) {
+                if(dst.remaining() < 2)
+                    break;
+                dst.put((byte) (0xC0 | c >> 6));
+                dst.put((byte) (0x80 | c & 0x3F));
+            } else if(Character.isSurrogate(c)) {
+                char low = i + 1 < this.size ? charAt(i + 1) : 0;
+                if(Character.isHighSurrogate(c) && Character.isLowSurrogate(low)) {
+                    if(dst.remaining() < 4)
+                        break;
+                    int cp = Character.toCodePoint(c, low);
+                    dst.put((byte) (0xF0 | cp >> 18));
+                    dst.put((byte) (0x80 | cp >> 12 & 0x3F));
+                    dst.put((byte) (0x80 | cp >> 6 & 0x3F));
+                    dst.put((byte) (0x80 | cp & 0x3F));
+                    i ++;
+                } else {
+                    if(!dst.hasRemaining())
+                        break;
+                    dst.put((byte) '?');
+                }
+            } else {
+                if(dst.remaining() < 3)
+                    break;
+                dst.put((byte) (0xE0 | c >> 12));
+                dst.put((byte) (0x80 | c >> 6 & 0x3F));
+                dst.put((byte) (0x80 | c & 0x3F));
+            }
+            i ++;
+        }
+        return i;
     }
 
     // ---- Override ----
@@ -575,11 +1519,109 @@ public class StringBuilder implements CharSequence {
         StringBuilder that = (StringBuilder) o;
 
         if (size != that.size) return false;
-        return Arrays.equals(values, that.values);
+        for(int i = 0; i < this.size; i ++)
+            if(charAt(i) != that.charAt(i)) return false;
+        return true;
     }
 
     @Override
     public StringBuilder clone() {
-        return new StringBuilder(toString());
+        return snapshot();
+    }
+
+    // ---- View ----
+
+    /**
+     * A range of a {@link StringBuilder} which is read without copying it
+     *
+     * <p>A {@code View} is only valid until the content of its {@link StringBuilder} is changed, afterwards every
+     * access throws a {@link ConcurrentModificationException}. Moving the gap, e.g. by {@link StringBuilder#toString()}
+     * or a search, does not invalidate it.</p>
+     * @see StringBuilder#view(int, int)
+     */
+    public static final class View implements CharSequence {
+        private final StringBuilder sb;
+        private final int start;
+        private final int end;
+        private final int modCount;
+
+        private View(StringBuilder sb, int start, int end, int modCount) {
+            this.sb = sb;
+            this.start = start;
+            this.end = end;
+            this.modCount = modCount;
+        }
+
+        private void check() throws ConcurrentModificationException {
+            if(this.sb.modCount != this.modCount)
+                throw new ConcurrentModificationException("StringBuilder was changed after the view was created");
+        }
+
+        /**
+         * @return {@code true} if the {@link StringBuilder} was not changed since the view was created
+         */
+        public boolean isValid() {
+            return this.sb.modCount == this.modCount;
+        }
+
+        /**
+         * @return the start index of the view in its {@link StringBuilder}
+         */
+        public int start() {
+            return this.start;
+        }
+
+        @Override
+        public int length() {
+            return this.end - this.start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            check();
+            if(index >= length())
+                throw new StringIndexOutOfBoundsException("Index is out of bounds\n\tIndex: " + index + ", Length: " + length());
+            if(index < 0)
+                throw new StringIndexOutOfBoundsException("Index must not be negative\n\tIndex: " + index);
+
+            return this.sb.raw(this.sb.rawIndex(this.start + index));
+        }
+
+        /**
+         * @return a {@code View} of the given range of this view, it is not copied
+         */
+        @Override
+        public View subSequence(int start, int end) {
+            check();
+            if(start > end)
+                throw new IllegalArgumentException("End must not be less then Start\n\tStart: " + start + ", End: " + end);
+            if(end > length())
+                throw new StringIndexOutOfBoundsException("End is out of bounds\n\tEnd: " + end + ", Length: " + length());
+            if(start < 0)
+                throw new StringIndexOutOfBoundsException("Start must not be negative\n\tStart: " + start);
+
+            return new View(this.sb, this.start + start, this.start + end, this.modCount);
+        }
+
+        /**
+         * Copies chars of the view into the given {@code char[]}
+         * @see StringBuilder#getChars(int, int, char[], int)
+         */
+        public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+            check();
+            if(srcBegin < 0 || srcBegin > srcEnd || srcEnd > length())
+                throw new StringIndexOutOfBoundsException("Range is out of bounds\n\tStart: " + srcBegin + ", End: " + srcEnd + ", Length: " + length());
+
+            this.sb.getChars(this.start + srcBegin, this.start + srcEnd, dst, dstBegin);
+        }
+
+        /**
+         * @return a copy of the view as a {@link String}, which stays valid after the {@link StringBuilder} is changed
+         */
+        @Override
+        public String toString() {
+            check();
+            return this.sb.subSequence(this.start, this.end).toString();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package de.f.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+/**
+ * Collects inserts, removes and replacements against the current indices of a {@link StringBuilder} and applies
+ * them all at once
+ *
+ * <p>All indices refer to the content at the time the {@code StringBuilderEdits} was created, so earlier edits do
+ * not shift later ones. {@link #apply()} copies the untouched ranges and the new texts in a single pass into a new
+ * backing array of exactly the needed capacity, instead of shifting the tail once per edit.</p>
+ *
+ * <pre>{@code
+ * new StringBuilderEdits(sb)
+ *         .replace(0, 5, "Hello")
+ *         .insert(12, "!")
+ *         .remove(20, 25)
+ *         .apply();
+ * }</pre>
+ * @see StringBuilder#replaceAll(SearchPattern, CharSequence)
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class StringBuilderEdits {
+    private final StringBuilder sb;
+    private final int modCount;
+
+    private final IntList starts = new IntList();
+    private final IntList ends = new IntList();
+    private final List<CharSequence> texts = new ArrayList<>();
+
+    /**
+     * Generates a new {@code StringBuilderEdits} for the current content of the given {@link StringBuilder}
+     * @param sb The {@link StringBuilder} to edit
+     */
+    public StringBuilderEdits(StringBuilder sb) {
+        this.sb = sb;
+        this.modCount = sb.modCount();
+    }
+
+    private void checkRange(int start, int end) throws StringIndexOutOfBoundsException, IllegalArgumentException {
+        if(start > end)
+            throw new IllegalArgumentException("End must not be less then Start\n\tStart: " + start + ", End: " + end);
+        if(end > this.sb.length())
+            throw new StringIndexOutOfBoundsException("End is out of bounds\n\tEnd: " + end + ", Length: " + this.sb.length());
+        if(start < 0)
+            throw new StringIndexOutOfBoundsException("Start must not be negative\n\tStart: " + start);
+    }
+
+    private StringBuilderEdits edit(int start, int end, CharSequence text) {
+        checkRange(start, end);
+
+        this.starts.add(start);
+        this.ends.add(end);
+        this.texts.add(text);
+        return this;
+    }
+
+    /**
+     * Inserts the given {@link CharSequence} at the given index, inserts at the same index keep their order
+     * @param index Position in the original content
+     * @param cs Value, it is read when the edits are applied
+     * @return {@code this}
+     */
+    public StringBuilderEdits insert(int index, CharSequence cs) {
+        return edit(index, index, cs);
+    }
+
+    /**
+     * Removes the given range
+     * @param start Start index in the original content
+     * @param end End index in the original content
+     * @return {@code this}
+     */
+    public StringBuilderEdits remove(int start, int end) {
+        return edit(start, end, null);
+    }
+
+    /**
+     * Replaces the given range with the given {@link CharSequence}
+     * @param start Start index in the original content
+     * @param end End index in the original content
+     * @param cs Value, it is read when the edits are applied
+     * @return {@code this}
+     */
+    public StringBuilderEdits replace(int start, int end, CharSequence cs) {
+        return edit(start, end, cs);
+    }
+
+    /**
+     * @return the amount of collected edits
+     */
+    public int size() {
+        return this.starts.size();
+    }
+
+    /**
+     * Applies all collected edits to the {@link StringBuilder}. The removed or replaced ranges must not overlap,
+     * an insert may only be at the start or the end of such a range.
+     * @return the edited {@link StringBuilder}
+     * @throws ConcurrentModificationException If the {@link StringBuilder} was changed since this was created
+     * @throws IllegalArgumentException If two ranges overlap
+     */
+    public StringBuilder apply() throws ConcurrentModificationException, IllegalArgumentException {
+        if(this.sb.modCount() != this.modCount)
+            throw new ConcurrentModificationException("StringBuilder was changed after the edits were created");
+
+        int count = size();
+        if(count == 0)
+            return this.sb;
+
+        // sort by start, inserts before a range starting at the same index, otherwise in the order of the calls
+        long[] order = new long[count];
+        for(int i = 0; i < count; i ++) {
+            int start = this.starts.get(i);
+            long range = this.ends.get(i) > start ? 1L << 31 : 0;
+            order[i] = (long) start << 32 | range | i;
+        }
+        Arrays.sort(order);
+
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        CharSequence[] texts = new CharSequence[count];
+        int last = 0;
+        for(int i = 0; i < count; i ++) {
+            int edit = (int) (order[i] & Integer.MAX_VALUE);
+            starts[i] = this.starts.get(edit);
+            ends[i] = this.ends.get(edit);
+            texts[i] = this.texts.get(edit);
+
+            if(starts[i] < last)
+                throw new IllegalArgumentException("Edits must not overlap\n\tStart: " + starts[i] + ", End of previous edit: " + last);
+            last = ends[i];
+        }
+
+        this.sb.apply(starts, ends, texts, count);
+        return this.sb;
+    }
+}
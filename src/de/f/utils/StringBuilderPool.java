@@ -0,0 +1,178 @@
+package de.f.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of reusable {@link StringBuilder}s which keep their capacity between uses
+ *
+ * <p>Platform threads first use a small thread-local cache. Virtual threads skip it, because a cache per virtual
+ * thread would rarely be reused, and go directly to shared shards of lock-free slots. The shard is picked by the
+ * thread id, so concurrent threads mostly touch different slots.</p>
+ *
+ * <p>Builders which grew above the maximum capacity are not retained, so a single huge response does not pin
+ * its buffer forever.</p>
+ *
+ * <pre>{@code
+ * StringBuilder sb = pool.acquire();
+ * try {
+ *     sb.append(...);
+ *     return sb.toString();
+ * } finally {
+ *     pool.release(sb);
+ * }
+ * }</pre>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class StringBuilderPool {
+    private static final int DEFAULT_START_CAPACITY = 1 << 8;
+    private static final int DEFAULT_MAX_CAPACITY = 1 << 16;
+    private static final int LOCAL_SIZE = 4;
+    private static final int SLOTS_PER_SHARD = 8;
+
+    private final int startCapacity;
+    private final int maxCapacity;
+    private final boolean compact;
+
+    private final ThreadLocal<StringBuilder[]> local = ThreadLocal.withInitial(() -> new StringBuilder[LOCAL_SIZE]);
+    private final AtomicReferenceArray<StringBuilder> shards;
+    private final int shardMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder trims = new LongAdder();
+
+    /**
+     * Generates a new {@code StringBuilderPool} with a start capacity of {@value DEFAULT_START_CAPACITY}
+     * and a max capacity of {@value DEFAULT_MAX_CAPACITY}
+     */
+    public StringBuilderPool() {
+        this(DEFAULT_START_CAPACITY, DEFAULT_MAX_CAPACITY, false);
+    }
+
+    /**
+     * Generates a new {@code StringBuilderPool}
+     * @param startCapacity Starting capacity of new {@link StringBuilder}s
+     * @param maxCapacity Maximum capacity of a {@link StringBuilder} to be retained
+     * @param compact {@code true} to create compact {@link StringBuilder}s
+     * @see StringBuilder#StringBuilder(int, boolean)
+     */
+    public StringBuilderPool(int startCapacity, int maxCapacity, boolean compact) {
+        if(startCapacity > maxCapacity)
+            throw new IllegalArgumentException("Max capacity must not be less then start capacity\n\tStart: " + startCapacity + ", Max: " + maxCapacity);
+
+        this.startCapacity = startCapacity;
+        this.maxCapacity = maxCapacity;
+        this.compact = compact;
+
+        int shards = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1) * 2 - 1);
+        this.shards = new AtomicReferenceArray<>(shards * SLOTS_PER_SHARD);
+        this.shardMask = shards - 1;
+    }
+
+    /**
+     * Takes an empty {@link StringBuilder} from the pool or creates a new one
+     * @return {@link StringBuilder}
+     */
+    public StringBuilder acquire() {
+        Thread thread = Thread.currentThread();
+
+        if(!thread.isVirtual()) {
+            StringBuilder[] cache = this.local.get();
+            for(int i = 0; i < cache.length; i ++) {
+                StringBuilder sb = cache[i];
+                if(sb != null) {
+                    cache[i] = null;
+                    this.hits.increment();
+                    return sb;
+                }
+            }
+        }
+
+        int first = shard(thread);
+        for(int i = 0; i < SLOTS_PER_SHARD; i ++) {
+            if(this.shards.get(first + i) == null)
+                continue;
+
+            StringBuilder sb = this.shards.getAndSet(first + i, null);
+            if(sb != null) {
+                this.hits.increment();
+                return sb;
+            }
+        }
+
+        this.misses.increment();
+        return new StringBuilder(this.startCapacity, this.compact);
+    }
+
+    /**
+     * Resets the given {@link StringBuilder} and returns it to the pool, it must not be used afterwards
+     * @param sb {@link StringBuilder}
+     */
+    public void release(StringBuilder sb) {
+        if(sb.capacity() > this.maxCapacity) {
+            this.trims.increment();
+            return;
+        }
+
+        sb.reset();
+        Thread thread = Thread.currentThread();
+
+        if(!thread.isVirtual()) {
+            StringBuilder[] cache = this.local.get();
+            for(int i = 0; i < cache.length; i ++) {
+                if(cache[i] == null) {
+                    cache[i] = sb;
+                    return;
+                }
+            }
+        }
+
+        int first = shard(thread);
+        for(int i = 0; i < SLOTS_PER_SHARD; i ++)
+            if(this.shards.get(first + i) == null && this.shards.compareAndSet(first + i, null, sb))
+                return;
+    }
+
+    private int shard(Thread thread) {
+        long id = thread.threadId();
+        int hash = (int) (id ^ id >>> 32) * 0x9E3779B9;
+        return ((hash ^ hash >>> 16) & this.shardMask) * SLOTS_PER_SHARD;
+    }
+
+    /**
+     * @return the amount of {@link #acquire()} calls served by a pooled {@link StringBuilder}
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the amount of {@link #acquire()} calls which created a new {@link StringBuilder}
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the amount of released {@link StringBuilder}s dropped because they grew above the max capacity
+     */
+    public long getTrims() {
+        return this.trims.sum();
+    }
+
+    /**
+     * @return the maximum capacity of a retained {@link StringBuilder}
+     */
+    public int getMaxCapacity() {
+        return this.maxCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getName() + "[hits=" + getHits() + ", misses=" + getMisses() + ", trims=" + getTrims() + "]";
+    }
+}
@@ -0,0 +1,151 @@
+package de.f.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the content of a {@link StringBuilder} to a channel or stream in bounded chunks
+ *
+ * <p>The content is encoded chunk by chunk straight from the backing array of the {@link StringBuilder}, so no
+ * {@link String} or full {@code byte[]} copy is created. {@link #writeTo(WritableByteChannel)} can be called again
+ * after a non-blocking channel accepted only part of a chunk, it continues where it stopped.</p>
+ *
+ * <p>The {@link StringBuilder} must not be changed while it is written.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class StringBuilderWriter {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 13;
+
+    private final StringBuilder sb;
+    private final Charset charset;
+    /** Encoder keeping its state between chunks, {@code null} for charsets encoded by the {@link StringBuilder} */
+    private final CharsetEncoder encoder;
+    private final ByteBuffer chunk;
+
+    /** Index of the next char to encode */
+    private int position;
+    private boolean flushed;
+    private long written;
+
+    /**
+     * Generates a new {@code StringBuilderWriter} with a heap chunk of {@value DEFAULT_CHUNK_SIZE} bytes
+     * @param sb The content to write
+     * @param charset The {@link Charset} to encode with
+     */
+    public StringBuilderWriter(StringBuilder sb, Charset charset) {
+        this(sb, charset, DEFAULT_CHUNK_SIZE, false);
+    }
+
+    /**
+     * Generates a new {@code StringBuilderWriter}
+     * @param sb The content to write
+     * @param charset The {@link Charset} to encode with
+     * @param chunkSize Size of the chunk buffer in bytes, at least 4
+     * @param direct {@code true} to use a direct chunk buffer, which channels can write without another copy
+     */
+    public StringBuilderWriter(StringBuilder sb, Charset charset, int chunkSize, boolean direct) {
+        if(chunkSize < 4)
+            throw new IllegalArgumentException("Chunk size must be at least 4\n\tChunk size: " + chunkSize);
+
+        this.sb = sb;
+        this.charset = charset;
+        if(charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII))
+            this.encoder = null;
+        else
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        this.chunk = direct ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize);
+        this.chunk.limit(0);
+    }
+
+    /**
+     * Encodes the next chunk if the current one is fully written
+     * @return {@code false} if there is nothing left to write
+     */
+    private boolean fill() {
+        if(this.chunk.hasRemaining())
+            return true;
+        if(isEncoded())
+            return false;
+
+        this.chunk.clear();
+        if(this.encoder == null) {
+            this.position = this.sb.writeTo(this.chunk, this.charset, this.position);
+            this.flushed = this.position == this.sb.length();
+        } else {
+            // also called for the empty rest, the encoder has to see the end of input before it can be flushed
+            this.position = this.sb.encode(this.chunk, this.encoder, this.position);
+            if(this.position == this.sb.length())
+                this.flushed = !this.encoder.flush(this.chunk).isOverflow();
+        }
+        this.chunk.flip();
+
+        return this.chunk.hasRemaining() || !isEncoded();
+    }
+
+    private boolean isEncoded() {
+        return this.position == this.sb.length() && this.flushed;
+    }
+
+    /**
+     * Writes as many bytes as the channel accepts
+     * @param channel The channel to write to
+     * @return {@code true} once everything is written, {@code false} if the channel is full and this has to be called again
+     * @throws IOException If the channel throws one
+     */
+    public boolean writeTo(WritableByteChannel channel) throws IOException {
+        while(fill()) {
+            this.written += channel.write(this.chunk);
+            if(this.chunk.hasRemaining())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes everything to the given {@link OutputStream}
+     * @param out The stream to write to
+     * @return The amount of bytes written in total
+     * @throws IOException If the stream throws one
+     */
+    public long writeTo(OutputStream out) throws IOException {
+        byte[] bytes = this.chunk.hasArray() ? null : new byte[this.chunk.capacity()];
+        while(fill()) {
+            int length = this.chunk.remaining();
+            if(bytes == null) {
+                out.write(this.chunk.array(), this.chunk.arrayOffset() + this.chunk.position(), length);
+                this.chunk.position(this.chunk.limit());
+            } else {
+                this.chunk.get(bytes, 0, length);
+                out.write(bytes, 0, length);
+            }
+            this.written += length;
+        }
+        return this.written;
+    }
+
+    /**
+     * @return {@code true} if everything is written
+     */
+    public boolean isDone() {
+        return isEncoded() && !this.chunk.hasRemaining();
+    }
+
+    /**
+     * @return The amount of bytes written so far
+     */
+    public long getBytesWritten() {
+        return this.written;
+    }
+}
@@ -0,0 +1,358 @@
+package de.f.utils;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+
+/**
+ * A suffix array and LCP array over the frozen content of a {@link StringBuilder}
+ *
+ * <p>The index is built once in linear time with the SA-IS algorithm, afterwards every query only looks at the
+ * pattern and {@code O(log n)} suffixes instead of scanning the whole text. The content is copied when the index is
+ * built, so it stays consistent, but it throws a {@link ConcurrentModificationException} once the
+ * {@link StringBuilder} was changed. {@link StringBuilder#index()} returns a cached index and rebuilds it only after
+ * a change.</p>
+ * @see StringBuilder#index()
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class SuffixIndex {
+    private final StringBuilder sb;
+    private final int modCount;
+
+    private final char[] text;
+    /** Start indices of all suffixes in lexicographic order */
+    private final int[] suffixes;
+    /** Length of the common prefix of {@code suffixes[i]} and {@code suffixes[i + 1]} */
+    private final int[] lcp;
+
+    /**
+     * Builds a new {@code SuffixIndex} over the current content of the given {@link StringBuilder}
+     * @param sb The content to index
+     */
+    public SuffixIndex(StringBuilder sb) {
+        this.sb = sb;
+        this.modCount = sb.modCount();
+
+        int n = sb.length();
+        this.text = new char[n];
+        sb.getChars(0, n, this.text, 0);
+
+        // compress the alphabet, so the buckets only span the chars used
+        int[] ranks = new int[1 << 16];
+        for(char c: this.text)
+            ranks[c] = 1;
+        int upper = -1;
+        for(int i = 0; i < ranks.length; i ++)
+            if(ranks[i] != 0)
+                ranks[i] = ++ upper;
+        int[] s = new int[n];
+        for(int i = 0; i < n; i ++)
+            s[i] = ranks[this.text[i]];
+
+        this.suffixes = sais(s, Math.max(upper, 0));
+        this.lcp = lcp(this.text, this.suffixes);
+    }
+
+    // ---- construction ----
+
+    /**
+     * Builds the suffix array of {@code s} using induced sorting
+     * @param s The text, all values in {@code [0, upper]}
+     * @param upper The largest value of {@code s}
+     */
+    private static int[] sais(int[] s, int upper) {
+        int n = s.length;
+        if(n == 0)
+            return new int[0];
+        if(n == 1)
+            return new int[] {0};
+        if(n == 2)
+            return s[0] < s[1] ? new int[] {0, 1} : new int[] {1, 0};
+
+        int[] sa = new int[n];
+        // true for S-type suffixes, which are smaller than the next one
+        boolean[] ls = new boolean[n];
+        for(int i = n - 2; i >= 0; i --)
+            ls[i] = s[i] == s[i + 1] ? ls[i + 1] : s[i] < s[i + 1];
+
+        // start of the L and S part of each bucket
+        int[] sumL = new int[upper + 1];
+        int[] sumS = new int[upper + 1];
+        for(int i = 0; i < n; i ++) {
+            if(!ls[i])
+                sumS[s[i]] ++;
+            else
+                sumL[s[i] + 1] ++;
+        }
+        for(int i = 0; i <= upper; i ++) {
+            sumS[i] += sumL[i];
+            if(i < upper)
+                sumL[i + 1] += sumS[i];
+        }
+
+        int[] lmsMap = new int[n + 1];
+        Arrays.fill(lmsMap, -1);
+        int m = 0;
+        for(int i = 1; i < n; i ++)
+            if(!ls[i - 1] && ls[i])
+                lmsMap[i] = m ++;
+        int[] lms = new int[m];
+        for(int i = 1, j = 0; i < n; i ++)
+            if(!ls[i - 1] && ls[i])
+                lms[j ++] = i;
+
+        int[] buckets = new int[upper + 1];
+        induce(s, sa, ls, lms, sumL, sumS, buckets);
+
+        if(m > 0) {
+            int[] sortedLms = new int[m];
+            int j = 0;
+            for(int v: sa)
+                if(lmsMap[v] != -1)
+                    sortedLms[j ++] = v;
+
+            // name the LMS substrings, equal substrings get equal names
+            int[] recS = new int[m];
+            int recUpper = 0;
+            recS[lmsMap[sortedLms[0]]] = 0;
+            for(int i = 1; i < m; i ++) {
+                int l = sortedLms[i - 1], r = sortedLms[i];
+                int endL = lmsMap[l] + 1 < m ? lms[lmsMap[l] + 1] : n;
+                int endR = lmsMap[r] + 1 < m ? lms[lmsMap[r] + 1] : n;
+                boolean same = true;
+                if(endL - l != endR - r) {
+                    same = false;
+                } else {
+                    while(l < endL && s[l] == s[r]) {
+                        l ++;
+                        r ++;
+                    }
+                    if(l == n || s[l] != s[r])
+                        same = false;
+                }
+                if(!same)
+                    recUpper ++;
+                recS[lmsMap[sortedLms[i]]] = recUpper;
+            }
+
+            int[] recSa = sais(recS, recUpper);
+            for(int i = 0; i < m; i ++)
+                sortedLms[i] = lms[recSa[i]];
+            induce(s, sa, ls, sortedLms, sumL, sumS, buckets);
+        }
+
+        return sa;
+    }
+
+    private static void induce(int[] s, int[] sa, boolean[] ls, int[] lms, int[] sumL, int[] sumS, int[] buckets) {
+        int n = s.length;
+        Arrays.fill(sa, -1);
+
+        System.arraycopy(sumS, 0, buckets, 0, buckets.length);
+        for(int d: lms)
+            if(d != n)
+                sa[buckets[s[d]] ++] = d;
+
+        System.arraycopy(sumL, 0, buckets, 0, buckets.length);
+        sa[buckets[s[n - 1]] ++] = n - 1;
+        for(int i = 0; i < n; i ++) {
+            int v = sa[i];
+            if(v >= 1 && !ls[v - 1])
+                sa[buckets[s[v - 1]] ++] = v - 1;
+        }
+
+        System.arraycopy(sumL, 0, buckets, 0, buckets.length);
+        for(int i = n - 1; i >= 0; i --) {
+            int v = sa[i];
+            if(v >= 1 && ls[v - 1]) {
+                int bucket = s[v - 1] + 1;
+                sa[-- buckets[bucket]] = v - 1;
+            }
+        }
+    }
+
+    /**
+     * Builds the LCP array using Kasai's algorithm
+     */
+    private static int[] lcp(char[] text, int[] sa) {
+        int n = text.length;
+        if(n == 0)
+            return new int[0];
+
+        int[] rank = new int[n];
+        for(int i = 0; i < n; i ++)
+            rank[sa[i]] = i;
+
+        int[] lcp = new int[n - 1];
+        int h = 0;
+        for(int i = 0; i < n; i ++) {
+            if(h > 0)
+                h --;
+            if(rank[i] == 0)
+                continue;
+
+            int j = sa[rank[i] - 1];
+            while(i + h < n && j + h < n && text[i + h] == text[j + h])
+                h ++;
+            lcp[rank[i] - 1] = h;
+        }
+        return lcp;
+    }
+
+    // ---- queries ----
+
+    private void check() throws ConcurrentModificationException {
+        if(!isValid())
+            throw new ConcurrentModificationException("StringBuilder was changed after the index was built");
+    }
+
+    /**
+     * @return {@code true} if the {@link StringBuilder} was not changed since the index was built
+     */
+    public boolean isValid() {
+        return this.sb.modCount() == this.modCount;
+    }
+
+    /**
+     * @return the length of the indexed content
+     */
+    public int length() {
+        return this.text.length;
+    }
+
+    /**
+     * Compares the pattern with the prefix of the suffix starting at the given index
+     * @return a negative value if the pattern is smaller, {@code 0} if the suffix starts with the pattern
+     */
+    private int compare(CharSequence pattern, int suffix) {
+        int length = Math.min(pattern.length(), this.text.length - suffix);
+        for(int i = 0; i < length; i ++) {
+            int diff = pattern.charAt(i) - this.text[suffix + i];
+            if(diff != 0)
+                return diff;
+        }
+        return length == pattern.length() ? 0 : 1;
+    }
+
+    /**
+     * @return the first position in the suffix array whose suffix is not less than the pattern
+     */
+    private int lowerBound(CharSequence pattern) {
+        int lo = 0, hi = this.suffixes.length;
+        while(lo < hi) {
+            int mid = lo + hi >>> 1;
+            if(compare(pattern, this.suffixes[mid]) > 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return the first position in the suffix array whose suffix neither starts with nor is less than the pattern
+     */
+    private int upperBound(CharSequence pattern, int from) {
+        int lo = from, hi = this.suffixes.length;
+        while(lo < hi) {
+            int mid = lo + hi >>> 1;
+            if(compare(pattern, this.suffixes[mid]) >= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Counts the occurrences of the given pattern, overlapping ones included
+     * @param pattern The substring to count, must not be empty
+     * @return the amount of occurrences
+     */
+    public int count(CharSequence pattern) {
+        check();
+        checkPattern(pattern);
+
+        int lo = lowerBound(pattern);
+        return upperBound(pattern, lo) - lo;
+    }
+
+    /**
+     * @param pattern The substring to search for, must not be empty
+     * @return {@code true} if the pattern occurs in the indexed content
+     */
+    public boolean contains(CharSequence pattern) {
+        return count(pattern) > 0;
+    }
+
+    /**
+     * Gets the first index of the pattern
+     * @param pattern The substring to search for, must not be empty
+     * @return The first occurrence of the pattern or {@code -1}
+     */
+    public int indexOf(CharSequence pattern) {
+        check();
+        checkPattern(pattern);
+
+        int lo = lowerBound(pattern);
+        int hi = upperBound(pattern, lo);
+        int first = -1;
+        for(int i = lo; i < hi; i ++)
+            if(first == -1 || this.suffixes[i] < first)
+                first = this.suffixes[i];
+        return first;
+    }
+
+    /**
+     * Adds all indices of the pattern to the given {@link IntList}, in suffix order and not sorted by index
+     * @param pattern The substring to search for, must not be empty
+     * @param indices The list the indices are added to
+     * @return {@code indices}
+     */
+    public IntList indicesOf(CharSequence pattern, IntList indices) {
+        check();
+        checkPattern(pattern);
+
+        int lo = lowerBound(pattern);
+        int hi = upperBound(pattern, lo);
+        for(int i = lo; i < hi; i ++)
+            indices.add(this.suffixes[i]);
+        return indices;
+    }
+
+    /**
+     * Gets all indices of the pattern, overlapping ones included
+     * @param pattern The substring to search for, must not be empty
+     * @return All occurrences of the pattern, sorted ascending
+     * @see StringBuilder#indicesOf(CharSequence)
+     */
+    public int[] indicesOf(CharSequence pattern) {
+        int[] indices = indicesOf(pattern, new IntList()).toArray();
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    /**
+     * Gets the longest substring which occurs at least twice, the occurrences may overlap
+     * @return the longest repeated substring, an empty {@link String} if no char repeats
+     */
+    public String longestRepeat() {
+        check();
+
+        int best = -1;
+        for(int i = 0; i < this.lcp.length; i ++)
+            if(best == -1 || this.lcp[i] > this.lcp[best])
+                best = i;
+
+        if(best == -1 || this.lcp[best] == 0)
+            return "";
+        return new String(this.text, this.suffixes[best], this.lcp[best]);
+    }
+
+    private static void checkPattern(CharSequence pattern) {
+        if(pattern.isEmpty())
+            throw new IllegalArgumentException("Pattern must not be empty");
+    }
+}
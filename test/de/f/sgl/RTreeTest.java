@@ -0,0 +1,85 @@
+package de.f.sgl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the queries of {@link RTree} with a brute-force scan using {@link Rectangle#contains(int, int)} and
+ * {@link Rectangle#intersects(Rectangle)}, with rectangles of negative, zero and positive sizes
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class RTreeTest {
+    public static void main(String[] args) {
+        Random random = new Random(3);
+        List<Rectangle> all = new ArrayList<>();
+        for(int i = 0; i < 3000; i ++)
+            all.add(new Rectangle(random.nextInt(1000), random.nextInt(1000), random.nextInt(60) - 20, random.nextInt(60) - 20));
+
+        check(RTree.load(all), all, random, "bulk loaded");
+
+        RTree<Rectangle> tree = new RTree<>();
+        for(Rectangle r: all)
+            tree.insert(r);
+        check(tree, all, random, "inserted");
+
+        List<Rectangle> kept = new ArrayList<>();
+        for(int i = 0; i < all.size(); i ++) {
+            if(i % 3 == 0)
+                assertTrue(tree.remove(all.get(i)), "Rectangle not removed: " + all.get(i));
+            else
+                kept.add(all.get(i));
+        }
+        assertTrue(tree.size() == kept.size(), "Size after removal: " + tree.size());
+        check(tree, kept, random, "after removal");
+
+        for(Rectangle r: kept)
+            assertTrue(tree.remove(r), "Rectangle not removed: " + r);
+        assertTrue(tree.isEmpty() && tree.getBounds() == null, "Tree not empty");
+
+        System.out.println("RTreeTest passed");
+    }
+
+    private static void check(RTree<Rectangle> tree, List<Rectangle> rectangles, Random random, String name) {
+        for(int q = 0; q < 2000; q ++) {
+            int x = random.nextInt(1100) - 50, y = random.nextInt(1100) - 50;
+            Set<Rectangle> expected = identitySet();
+            for(Rectangle r: rectangles)
+                if(r.contains(x, y))
+                    expected.add(r);
+            assertEquals(expected, tree.search(x, y), name + " point " + x + ", " + y);
+
+            Rectangle area = new Rectangle(x, y, random.nextInt(100) - 20, random.nextInt(100) - 20);
+            expected = identitySet();
+            for(Rectangle r: rectangles)
+                if(r.intersects(area))
+                    expected.add(r);
+            assertEquals(expected, tree.search(area), name + " area " + area);
+
+            for(Rectangle r: tree.nearest(x, y, 5))
+                assertTrue(!r.isEmpty(), name + " nearest returned empty " + r);
+        }
+    }
+
+    private static Set<Rectangle> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static void assertEquals(Set<Rectangle> expected, List<Rectangle> actual, String message) {
+        Set<Rectangle> found = identitySet();
+        found.addAll(actual);
+        assertTrue(found.size() == actual.size() && found.equals(expected),
+                message + "\n\tExpected: " + expected.size() + ", Found: " + actual.size());
+    }
+
+    private static void assertTrue(boolean condition, String message) {
+        if(!condition)
+            throw new AssertionError(message);
+    }
+}
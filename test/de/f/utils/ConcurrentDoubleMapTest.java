@@ -0,0 +1,142 @@
+package de.f.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks {@link ConcurrentDoubleMap} under contention and measures how its throughput scales with the amount of
+ * threads compared to a {@link DoubleMap} behind one lock
+ *
+ * <p>The scaling table is only meaningful on a machine with several cores, with one core both maps serialize.</p>
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class ConcurrentDoubleMapTest {
+    private static final int OPERATIONS = 1_000_000;
+
+    /**
+     * The operations of the benchmark, one read or one increment
+     */
+    private interface Operations {
+        Long get(int k1, int k2);
+        void increment(int k1, int k2);
+    }
+
+    public static void main(String[] args) throws Exception {
+        checkContention(8);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Cores: " + cores);
+        System.out.println("Threads\tConcurrentDoubleMap ops/ms\tsynchronized DoubleMap ops/ms");
+        for(int threads = 1; threads <= cores * 2; threads <<= 1) {
+            ConcurrentDoubleMap<Integer, Integer, Long> concurrent = new ConcurrentDoubleMap<>();
+            double concurrentOps = throughput(threads, new Operations() {
+                @Override
+                public Long get(int k1, int k2) {
+                    return concurrent.get(k1, k2);
+                }
+                @Override
+                public void increment(int k1, int k2) {
+                    concurrent.merge(k1, k2, 1L, Long::sum);
+                }
+            });
+
+            DoubleMap<Integer, Integer, Long> locked = new DoubleMap<>();
+            double lockedOps = throughput(threads, new Operations() {
+                @Override
+                public synchronized Long get(int k1, int k2) {
+                    return locked.get(k1, k2);
+                }
+                @Override
+                public synchronized void increment(int k1, int k2) {
+                    Long v = locked.get(k1, k2);
+                    locked.put(k1, k2, v == null ? 1L : v + 1);
+                }
+            });
+            System.out.printf("%d\t%.0f\t%.0f%n", threads, concurrentOps, lockedOps);
+        }
+        System.out.println("ConcurrentDoubleMapTest passed");
+    }
+
+    /**
+     * Lets writers merge and compute while readers read and iterate, then checks that no update was lost
+     */
+    private static void checkContention(int threads) throws Exception {
+        ConcurrentDoubleMap<Integer, Integer, Long> map = new ConcurrentDoubleMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int t = 0; t < threads / 2; t ++) {
+            futures.add(executor.submit(() -> {
+                for(int i = 0; i < 200_000; i ++) {
+                    map.merge(i % 500, i % 7, 1L, Long::sum);
+                    Long v = map.computeIfAbsent(i % 300, -1, (k1, k2) -> (long) k1);
+                    assertTrue(v == i % 300, "computeIfAbsent returned " + v + " for " + (i % 300));
+                }
+                return null;
+            }));
+        }
+        for(int t = threads / 2; t < threads; t ++) {
+            futures.add(executor.submit(() -> {
+                for(int i = 0; i < 500_000; i ++) {
+                    Long v = map.get(i % 500, i % 7);
+                    assertTrue(v == null || v > 0, "Read " + v);
+                }
+                for(DoubleMap.Entry<Integer, Integer, Long> entry: map)
+                    assertTrue(entry.getValue() != null, "Iterated null value");
+                return null;
+            }));
+        }
+        for(Future<?> future: futures)
+            future.get();
+        executor.shutdown();
+
+        long total = 0;
+        int count = 0;
+        for(DoubleMap.Entry<Integer, Integer, Long> entry: map) {
+            count ++;
+            if(entry.getKey2() >= 0)
+                total += entry.getValue();
+        }
+        assertTrue(total == threads / 2 * 200_000L, "Lost updates\n\tExpected: " + threads / 2 * 200_000L + ", Found: " + total);
+        // 500 * 7 merged pairs, 300 computed ones
+        assertTrue(count == 3800 && map.size() == 3800, "Size\n\tIterated: " + count + ", Size: " + map.size());
+    }
+
+    /**
+     * @return the operations per millisecond of all threads, a quarter of the operations are increments
+     */
+    private static double throughput(int threads, Operations map) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for(int t = 0; t < threads; t ++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                for(int i = 0; i < OPERATIONS; i ++) {
+                    int k1 = random.nextInt(1000), k2 = random.nextInt(1000);
+                    if((i & 3) == 0)
+                        map.increment(k1, k2);
+                    else
+                        map.get(k1, k2);
+                }
+                return null;
+            }));
+        }
+        for(Future<?> future: futures)
+            future.get();
+        executor.shutdown();
+        return (double) threads * OPERATIONS / ((System.nanoTime() - start) / 1e6);
+    }
+
+    private static void assertTrue(boolean condition, String message) {
+        if(!condition)
+            throw new AssertionError(message);
+    }
+}
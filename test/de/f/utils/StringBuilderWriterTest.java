@@ -0,0 +1,55 @@
+package de.f.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compares the bytes written by {@link StringBuilderWriter} with {@link String#getBytes(Charset)}, including empty
+ * content under charsets encoded by a {@link java.nio.charset.CharsetEncoder}, and checks that a non-blocking channel
+ * is rejected instead of spun on
+ *
+ * @author Finlay
+ * @since 1.0
+ * @version 1.0
+ */
+public class StringBuilderWriterTest {
+    public static void main(String[] args) throws IOException {
+        Charset[] charsets = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16,
+                StandardCharsets.UTF_16LE, Charset.forName("windows-1252")};
+        String[] contents = {"", "a", "Hello Wörld €", "x".repeat(20_000) + "😀"};
+
+        for(Charset charset: charsets) {
+            for(String content: contents) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                long written = new StringBuilder(content).writeTo(out, charset);
+
+                byte[] expected = content.getBytes(charset);
+                assertTrue(Arrays.equals(expected, out.toByteArray()) && written == expected.length,
+                        "Wrong bytes\n\tCharset: " + charset + ", Length: " + content.length());
+            }
+        }
+
+        Pipe pipe = Pipe.open();
+        pipe.sink().configureBlocking(false);
+        try {
+            new StringBuilder("content").writeTo(pipe.sink());
+            throw new AssertionError("Non-blocking channel was accepted");
+        } catch(IllegalBlockingModeException expected) {
+            // rejected before anything is written
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+        System.out.println("StringBuilderWriterTest passed");
+    }
+
+    private static void assertTrue(boolean condition, String message) {
+        if(!condition)
+            throw new AssertionError(message);
+    }
+}